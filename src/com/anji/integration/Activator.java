@@ -42,6 +42,17 @@ public double[] next();
  */
 public double[] next( double[] stimuli );
 
+/**
+ * Activates without allocating: <code>stimuli</code> is read in place and the outputs are
+ * written to <code>response</code>, so callers that reuse both arrays produce no garbage.
+ * <code>stimuli</code> may be read until the next activation and must not be changed meanwhile.
+ * @param stimuli input activation pattern, or null to reuse the previous one
+ * @param response array of at least <code>getOutputDimension()</code> elements to receive the
+ * outputs
+ * @return <code>response</code>
+ */
+public double[] next( double[] stimuli, double[] response );
+
 /**
  * @param stimuli
  * @return double[][] sequence of output arrays given input sequence <code>stimult</code>.
@@ -82,4 +93,10 @@ public int getInputDimension();
  * @return dimension of output array
  */
 public int getOutputDimension();
+
+/**
+ * @return true if responses depend on previous inputs, false if each response depends only on
+ * the current input
+ */
+public boolean isRecurrent();
 }
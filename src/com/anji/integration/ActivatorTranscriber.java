@@ -21,6 +21,8 @@ package com.anji.integration;
 
 import org.jgap.Chromosome;
 
+import com.anji.nn.FlatNet;
+import com.anji.nn.FlatNetCompiler;
 import com.anji.util.Configurable;
 import com.anji.util.Properties;
 
@@ -52,12 +54,45 @@ public final static String ANJI_TYPE = "anji";
  */
 public final static String JOONE_TYPE = "joone";
 
+/**
+ * enumerated type constant for ANJI ANN compiled into flat arrays; same responses as ANJI
+ */
+public final static String FLAT_TYPE = "flat";
+
+/**
+ * enumerated type constant for flat ANN whose steps are compiled into a generated class; same
+ * responses as ANJI
+ */
+public final static String COMPILED_TYPE = "compiled";
+
+/**
+ * properties key, networks reading more connections than this per step are not compiled but
+ * interpreted as with <code>FLAT_TYPE</code>
+ */
+public final static String COMPILED_MAX_CONNECTIONS_KEY = "ann.compiled.max.connections";
+
+/**
+ * properties key, bound in kilobytes on the source and bytecode of cached compiled network
+ * classes
+ */
+public final static String COMPILED_CACHE_KB_KEY = "ann.compiled.cache.kb";
+
+/**
+ * properties key, activations of networks with the same structure and weights after which they
+ * are compiled; until then they are interpreted as with <code>FLAT_TYPE</code>
+ */
+public final static String COMPILED_MIN_ACTIVATIONS_KEY = "ann.compiled.min.activations";
+
 private String type = ANJI_TYPE;
 
 private int recurrentCycles;
 
 private AnjiNetTranscriber transcriber;
 
+private FlatNetTranscriber flatTranscriber;
+
+private FlatNetCompiler compiler;
+
 /**
  * See <a href=" {@docRoot}/params.htm" target="anji_params">Parameter Details </a> for
  * specific property settings.
@@ -67,6 +102,11 @@ public void init( Properties props ) {
 	type = props.getProperty( TYPE_KEY, ANJI_TYPE );
 	recurrentCycles = props.getIntProperty( RECURRENT_CYCLES_KEY, 1 );
 	transcriber = (AnjiNetTranscriber) props.singletonObjectProperty( AnjiNetTranscriber.class );
+	flatTranscriber = (FlatNetTranscriber) props.singletonObjectProperty( FlatNetTranscriber.class );
+	if ( COMPILED_TYPE.equals( type ) )
+		compiler = new FlatNetCompiler( props.getIntProperty( COMPILED_MAX_CONNECTIONS_KEY, 4000 ),
+				props.getLongProperty( COMPILED_CACHE_KB_KEY, 32768 ) * 1024, props.getLongProperty(
+						COMPILED_MIN_ACTIVATIONS_KEY, 1000000 ) );
 }
 
 	/**
@@ -81,6 +121,12 @@ public Activator newActivator( Chromosome ch ) throws TranscriberException {
 	Activator result = null;
 	if ( ANJI_TYPE.equals( type ) ) {
 		result = new AnjiActivator( transcriber.newAnjiNet( ch ), recurrentCycles );
+	} else if ( FLAT_TYPE.equals( type ) ) {
+		result = new FlatActivator( flatTranscriber.newFlatNet( ch ), recurrentCycles );
+	} else if ( COMPILED_TYPE.equals( type ) ) {
+		FlatNet net = flatTranscriber.newFlatNet( ch );
+		compiler.compile( net );
+		result = new FlatActivator( net, recurrentCycles );
 	} else if ( JOONE_TYPE.equals( type ) ) {
 		throw new TranscriberException( "JOONE not implemented" );
 	} else
@@ -89,6 +135,36 @@ public Activator newActivator( Chromosome ch ) throws TranscriberException {
 	return result;
 }
 
+/**
+ * Constructs <code>BatchActivator</code> phenotype from <code>Chromosome</code> genotype: flat
+ * networks step all lanes together, others are activated one lane after the other.
+ * 
+ * @param ch <code>Chromosome</code> from which activator will be built
+ * @param batchSize number of lanes
+ * @return BatchActivator phenotype built from <code>Chromosome</code> genotype
+ * @throws TranscriberException
+ */
+public BatchActivator newBatchActivator( Chromosome ch, int batchSize ) throws TranscriberException {
+	if ( FLAT_TYPE.equals( type ) || COMPILED_TYPE.equals( type ) )
+		return new FlatActivator( flatTranscriber.newFlatNet( ch ), recurrentCycles )
+				.newBatchActivator( batchSize );
+
+	Activator[] lanes = new Activator[ batchSize ];
+	lanes[ 0 ] = newActivator( ch );
+	boolean recurrent = !( lanes[ 0 ] instanceof AnjiActivator )
+			|| ( (AnjiActivator) lanes[ 0 ] ).isRecurrent();
+	for ( int lane = 1; lane < batchSize; ++lane )
+		lanes[ lane ] = recurrent ? newActivator( ch ) : lanes[ 0 ];
+	return new SerialBatchActivator( lanes, recurrent );
+}
+
+/**
+ * @return network type, and for compiled networks what the compiler did
+ */
+public String toString() {
+	return ( compiler == null ) ? type + " networks" : type + " networks: " + compiler;
+}
+
 /**
  * @see com.anji.integration.Transcriber#getPhenotypeClass()
  */
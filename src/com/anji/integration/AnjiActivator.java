@@ -84,6 +84,19 @@ public double[] next() {
  * @return result of activation
  */
 public double[] next( double[] newInputValues ) {
+	return next( newInputValues, new double[ outputDimension ] );
+}
+
+/**
+ * The input array becomes the network's input pattern rather than being copied, and neither
+ * this method nor the network it steps allocates.
+ * @param newInputValues input activation pattern to be "shown" to network; if null, uses
+ * previous values
+ * @param result array receiving the output activation pattern
+ * @return <code>result</code>
+ * @see Activator#next(double[], double[])
+ */
+public double[] next( double[] newInputValues, double[] result ) {
 	if ( newInputValues != null )
 		inputPattern.setValues( newInputValues );
 
@@ -99,7 +112,6 @@ public double[] next( double[] newInputValues ) {
 
 	// last step, get results
 	net.step();
-	double[] result = new double[ outputDimension ];
 	for ( int idx = 0; idx < outputDimension; ++idx ) {
 		Neuron n = net.getOutputNeuron( idx );
 		result[ idx ] = n.getValue();
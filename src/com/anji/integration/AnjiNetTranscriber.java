@@ -60,6 +60,11 @@ private final static Logger logger = Logger.getLogger( AnjiNetTranscriber.class
 
 private RecurrencyPolicy recurrencyPolicy = RecurrencyPolicy.BEST_GUESS;
 
+/**
+ * if true, neurons get the approximation of their activation function where one is registered
+ */
+private boolean approximate = false;
+
 /**
  * ctor
  */
@@ -80,6 +85,7 @@ public AnjiNetTranscriber( RecurrencyPolicy aPolicy ) {
  */
 public void init( Properties props ) {
 	recurrencyPolicy = RecurrencyPolicy.load( props );
+	approximate = props.getBooleanProperty( ActivationFunctionFactory.APPROXIMATE_KEY, false );
 }
 
 /**
@@ -107,7 +113,7 @@ public AnjiNet newAnjiNet( Chromosome genotype ) throws TranscriberException {
 	while ( it.hasNext() ) {
 		NeuronAllele neuronAllele = (NeuronAllele) it.next();
 		Neuron n = new Neuron( ActivationFunctionFactory.getInstance().get(
-				neuronAllele.getActivationType().toString() ) );
+				neuronAllele.getActivationType().toString(), approximate ) );
 		n.setId( neuronAllele.getInnovationId().longValue() );
 		inNeurons.add( n );
 		allNeurons.put( neuronAllele.getInnovationId(), n );
@@ -121,7 +127,7 @@ public AnjiNet newAnjiNet( Chromosome genotype ) throws TranscriberException {
 	while ( it.hasNext() ) {
 		NeuronAllele neuronAllele = (NeuronAllele) it.next();
 		Neuron n = new Neuron( ActivationFunctionFactory.getInstance().get(
-				neuronAllele.getActivationType().toString() ) );
+				neuronAllele.getActivationType().toString(), approximate ) );
 		n.setId( neuronAllele.getInnovationId().longValue() );
 		outNeurons.add( n );
 		allNeurons.put( neuronAllele.getInnovationId(), n );
@@ -134,7 +140,7 @@ public AnjiNet newAnjiNet( Chromosome genotype ) throws TranscriberException {
 	while ( it.hasNext() ) {
 		NeuronAllele neuronAllele = (NeuronAllele) it.next();
 		Neuron n = new Neuron( ActivationFunctionFactory.getInstance().get(
-				neuronAllele.getActivationType().toString() ) );
+				neuronAllele.getActivationType().toString(), approximate ) );
 		n.setId( neuronAllele.getInnovationId().longValue() );
 		allNeurons.put( neuronAllele.getInnovationId(), n );
 	}
@@ -0,0 +1,83 @@
+/*
+ * Copyright (C) 2004 Derek James and Philip Tucker
+ *
+ * This file is part of ANJI (Another NEAT Java Implementation).
+ *
+ * ANJI is free software; you can redistribute it and/or modify it under the terms of the GNU
+ * General Public License as published by the Free Software Foundation; either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See
+ * the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program; if
+ * not, write to the Free Software Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA
+ */
+package com.anji.integration;
+
+/**
+ * Several independent copies of one network, called lanes, activated together: each lane keeps
+ * its own state and responds to its own input exactly as an <code>Activator</code> on the same
+ * chromosome would.
+ *
+ * @see com.anji.integration.Activator
+ */
+public interface BatchActivator {
+
+/**
+ * Activates every lane once. Lanes that are not needed may be given no input; they are
+ * activated anyway, and their responses are to be ignored.
+ *
+ * @param stimuli input pattern of each lane; null for a lane, or for all, to reuse the previous
+ * one
+ * @param responses array per lane of at least <code>getOutputDimension()</code> elements to
+ * receive its outputs
+ * @return <code>responses</code>
+ */
+public double[][] next( double[][] stimuli, double[][] responses );
+
+/**
+ * reset all lanes to initial state
+ */
+public void reset();
+
+/**
+ * reset <code>lane</code> to initial state
+ *
+ * @param lane
+ */
+public void reset( int lane );
+
+/**
+ * @return number of lanes
+ */
+public int getBatchSize();
+
+/**
+ * @return true if responses depend on previous inputs, false if each response depends only on
+ * the current input of its lane
+ */
+public boolean isRecurrent();
+
+/**
+ * @return min response value
+ */
+public double getMinResponse();
+
+/**
+ * @return max response value
+ */
+public double getMaxResponse();
+
+/**
+ * @return dimension of input array
+ */
+public int getInputDimension();
+
+/**
+ * @return dimension of output array
+ */
+public int getOutputDimension();
+}
@@ -34,7 +34,11 @@ public class ErrorFunction {
 
 	private double targetRange = 0.0d;
 
-	private static ErrorFunction instance = null;
+	/**
+	 * created when the class is loaded, so evaluation threads can not race to create a second,
+	 * uninitialized instance
+	 */
+	private final static ErrorFunction instance = new ErrorFunction();
 	
 	private ErrorFunction() {
 		super();
@@ -44,8 +48,6 @@ public class ErrorFunction {
 	 * @return singleton instance
 	 */
 	public static ErrorFunction getInstance() {
-		if ( instance == null )
-			instance = new ErrorFunction();
 		return instance;
 	}
 	
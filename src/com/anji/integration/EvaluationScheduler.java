@@ -0,0 +1,235 @@
+/*
+ * Copyright (C) 2004 Derek James and Philip Tucker
+ *
+ * This file is part of ANJI (Another NEAT Java Implementation).
+ *
+ * ANJI is free software; you can redistribute it and/or modify it under the terms of the GNU
+ * General Public License as published by the Free Software Foundation; either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See
+ * the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program; if
+ * not, write to the Free Software Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA
+ */
+package com.anji.integration;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.log4j.Logger;
+import org.jgap.Chromosome;
+
+import com.anji.nn.AnjiNet;
+import com.anji.util.Configurable;
+import com.anji.util.Properties;
+
+/**
+ * Orders the chromosomes of a generation for evaluation, longest expected evaluation first, so
+ * that the threads of a <code>WorkerPool</code> do not sit idle at the end of a generation
+ * waiting for one long evaluation that started last. Fitness functions record what evaluating
+ * each chromosome cost; a chromosome's cost is predicted from its own cost in the previous
+ * generation if it survived, otherwise from that of its parents, otherwise from the activation
+ * cost of its network, <code>AnjiNet.cost()</code>.
+ */
+public class EvaluationScheduler implements Configurable {
+
+private final static Logger logger = Logger.getLogger( EvaluationScheduler.class );
+
+/**
+ * properties key, true to evaluate the chromosomes with the highest predicted cost first
+ */
+public final static String SCHEDULE_BY_COST_KEY = "fitness.schedule.by.cost";
+
+private boolean enabled = false;
+
+/**
+ * cost recorded this generation, key <code>Long</code> chromosome ID, value
+ * <code>AtomicLong</code>
+ */
+private volatile ConcurrentHashMap current = new ConcurrentHashMap();
+
+/**
+ * cost recorded last generation, which predictions are made from
+ */
+private volatile Map previous = new ConcurrentHashMap();
+
+private AnjiNetTranscriber transcriber;
+
+/**
+ * should call <code>init()</code> after ctor
+ */
+public EvaluationScheduler() {
+	// noop
+}
+
+/**
+ * See <a href=" {@docRoot}/params.htm" target="anji_params">Parameter Details </a> for
+ * specific property settings.
+ *
+ * @param props configuration parameters
+ */
+public void init( Properties props ) {
+	enabled = props.getBooleanProperty( SCHEDULE_BY_COST_KEY, false );
+	if ( enabled )
+		transcriber = (AnjiNetTranscriber) props.singletonObjectProperty( AnjiNetTranscriber.class );
+}
+
+/**
+ * Makes the costs recorded so far the basis of predictions; called by fitness functions once at
+ * the start of each bulk evaluation.
+ */
+public synchronized void nextGeneration() {
+	previous = current;
+	current = new ConcurrentHashMap();
+}
+
+/**
+ * Adds to the cost of evaluating <code>c</code> this generation. Thread safe.
+ *
+ * @param c
+ * @param cost e.g. nanoseconds spent evaluating <code>c</code>, in the same unit for every
+ * chromosome
+ */
+public void addCost( Chromosome c, long cost ) {
+	if ( !enabled )
+		return;
+	AtomicLong total = (AtomicLong) current.get( c.getId() );
+	if ( total == null ) {
+		AtomicLong created = new AtomicLong();
+		total = (AtomicLong) current.putIfAbsent( c.getId(), created );
+		if ( total == null )
+			total = created;
+	}
+	total.addAndGet( cost );
+}
+
+/**
+ * @param chromosomes
+ * @return indexes of <code>chromosomes</code> in the order they should be evaluated: highest
+ * predicted cost first, or in index order if scheduling by cost is off
+ */
+public int[] order( Chromosome[] chromosomes ) {
+	Integer[] order = new Integer[ chromosomes.length ];
+	for ( int i = 0; i < order.length; ++i )
+		order[ i ] = Integer.valueOf( i );
+
+	if ( enabled ) {
+		final double[] predicted = predictCosts( chromosomes );
+		Arrays.sort( order, new Comparator() {
+
+			public int compare( Object o1, Object o2 ) {
+				int i1 = ( (Integer) o1 ).intValue();
+				int i2 = ( (Integer) o2 ).intValue();
+				int result = Double.compare( predicted[ i2 ], predicted[ i1 ] );
+				return ( result != 0 ) ? result : i1 - i2;
+			}
+		} );
+		if ( logger.isDebugEnabled() && order.length > 0 )
+			logger.debug( "evaluating " + order.length + " chromosomes by predicted cost, from "
+					+ predicted[ order[ 0 ].intValue() ] + " to "
+					+ predicted[ order[ order.length - 1 ].intValue() ] );
+	}
+
+	int[] result = new int[ order.length ];
+	for ( int i = 0; i < result.length; ++i )
+		result[ i ] = order[ i ].intValue();
+	return result;
+}
+
+/**
+ * @param chromosomes
+ * @return predicted cost of each chromosome: measured cost of the chromosome last generation, or
+ * the mean of that of its parents, or, with neither, the activation cost of its network times
+ * the measured cost per unit of activation cost
+ */
+private double[] predictCosts( Chromosome[] chromosomes ) {
+	Map measured = previous;
+	double[] result = new double[ chromosomes.length ];
+	boolean[] unknown = new boolean[ chromosomes.length ];
+	int numUnknown = 0;
+	for ( int i = 0; i < chromosomes.length; ++i ) {
+		Chromosome c = chromosomes[ i ];
+		AtomicLong own = (AtomicLong) measured.get( c.getId() );
+		AtomicLong primary = ( c.getPrimaryParentId() == null ) ? null : (AtomicLong) measured
+				.get( c.getPrimaryParentId() );
+		AtomicLong secondary = ( c.getSecondaryParentId() == null ) ? null : (AtomicLong) measured
+				.get( c.getSecondaryParentId() );
+		if ( own != null )
+			result[ i ] = own.get();
+		else if ( primary != null && secondary != null )
+			result[ i ] = ( primary.get() + secondary.get() ) / 2.0;
+		else if ( primary != null || secondary != null )
+			result[ i ] = ( primary != null ? primary : secondary ).get();
+		else {
+			unknown[ i ] = true;
+			++numUnknown;
+		}
+	}
+	if ( numUnknown == 0 )
+		return result;
+
+	// Activation cost of the networks of survivors measured last generation, and of the networks
+	// to predict. Only these are transcribed.
+	long[] netCosts = new long[ chromosomes.length ];
+	long survivorCost = 0;
+	long survivorNetCost = 0;
+	long unknownNetCost = 0;
+	for ( int i = 0; i < chromosomes.length; ++i ) {
+		AtomicLong own = (AtomicLong) measured.get( chromosomes[ i ].getId() );
+		if ( own == null && !unknown[ i ] )
+			continue;
+		netCosts[ i ] = networkCost( chromosomes[ i ] );
+		if ( own != null ) {
+			survivorCost += own.get();
+			survivorNetCost += netCosts[ i ];
+		}
+		else
+			unknownNetCost += netCosts[ i ];
+	}
+
+	// measured cost per unit of activation cost: that of the survivors if there are any, otherwise
+	// the mean measured cost of last generation over the mean activation cost of the networks to
+	// predict; with no measurements, activation cost alone
+	double costPerUnit = 1;
+	if ( survivorNetCost > 0 && survivorCost > 0 )
+		costPerUnit = (double) survivorCost / survivorNetCost;
+	else if ( !measured.isEmpty() && unknownNetCost > 0 ) {
+		long totalCost = 0;
+		Iterator it = measured.values().iterator();
+		while ( it.hasNext() )
+			totalCost += ( (AtomicLong) it.next() ).get();
+		double meanCost = (double) totalCost / measured.size();
+		double meanNetCost = (double) unknownNetCost / numUnknown;
+		if ( meanCost > 0 )
+			costPerUnit = meanCost / meanNetCost;
+	}
+
+	for ( int i = 0; i < chromosomes.length; ++i )
+		if ( unknown[ i ] )
+			result[ i ] = costPerUnit * netCosts[ i ];
+	return result;
+}
+
+/**
+ * @param c
+ * @return activation cost of the network of <code>c</code>
+ */
+private long networkCost( Chromosome c ) {
+	try {
+		AnjiNet net = transcriber.newAnjiNet( c );
+		return net.cost();
+	}
+	catch ( TranscriberException e ) {
+		throw new IllegalArgumentException( "could not transcribe chromosome " + c.getId() + ": "
+				+ e );
+	}
+}
+}
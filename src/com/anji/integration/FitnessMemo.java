@@ -0,0 +1,190 @@
+/*
+ * Copyright (C) 2004 Derek James and Philip Tucker
+ *
+ * This file is part of ANJI (Another NEAT Java Implementation).
+ *
+ * ANJI is free software; you can redistribute it and/or modify it under the terms of the GNU
+ * General Public License as published by the Free Software Foundation; either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See
+ * the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program; if
+ * not, write to the Free Software Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA
+ */
+package com.anji.integration;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.jgap.Chromosome;
+
+import com.anji.neat.ConnectionAllele;
+import com.anji.neat.NeatChromosomeUtility;
+import com.anji.neat.NeuronAllele;
+import com.anji.neat.NeuronType;
+import com.anji.util.Configurable;
+import com.anji.util.Properties;
+
+/**
+ * Remembers the fitness of networks evaluated with given trial seeds, so that a network played
+ * again with the same seeds, e.g. a clone or a chromosome whose mutations only touched connections
+ * the transcriber never reaches, gets its fitness without being transcribed or simulated. A key
+ * holds everything transcription reads from a chromosome: the connections into the output neurons
+ * and their ancestors, in gene order, with their weights, and the activation functions of those
+ * neurons. Equal keys therefore give identical networks, which play identical games with equal
+ * seeds; the seeds are part of the key. With common trial seeds, hits come from chromosomes with
+ * the same phenotype in one generation; otherwise seeds follow chromosome IDs, and hits come from
+ * survivors evaluated again in the next generation. Entries not looked up for a generation are
+ * dropped.
+ */
+public class FitnessMemo implements Configurable {
+
+/**
+ * properties key, true to reuse the fitness of identical networks with identical trial seeds
+ */
+public final static String MEMO_KEY = "fitness.memo";
+
+private boolean enabled = false;
+
+private volatile Map current = new ConcurrentHashMap();
+
+private volatile Map previous = new ConcurrentHashMap();
+
+/**
+ * should call <code>init()</code> after ctor
+ */
+public FitnessMemo() {
+	// noop
+}
+
+/**
+ * See <a href=" {@docRoot}/params.htm" target="anji_params">Parameter Details </a> for
+ * specific property settings.
+ *
+ * @param props configuration parameters
+ */
+public void init( Properties props ) {
+	enabled = props.getBooleanProperty( MEMO_KEY, false );
+}
+
+/**
+ * @return true if fitness values are reused
+ */
+public boolean isEnabled() {
+	return enabled;
+}
+
+/**
+ * Drops entries that were not looked up since the last call; called by fitness functions once
+ * at the start of each bulk evaluation.
+ */
+public synchronized void nextGeneration() {
+	previous = current;
+	current = new ConcurrentHashMap();
+}
+
+/**
+ * @param c chromosome
+ * @param seeds seeds of the trials <code>c</code> plays, in order
+ * @return key of the fitness of <code>c</code> with <code>seeds</code>; equal keys mean equal
+ * fitness
+ */
+public Object key( Chromosome c, long[] seeds ) {
+	Collection alleles = c.getAlleles();
+	List connAlleles = NeatChromosomeUtility.getConnectionList( alleles );
+	SortedMap outNeuronAlleles = NeatChromosomeUtility.getNeuronMap( alleles, NeuronType.OUTPUT );
+	Set relevant = NeatChromosomeUtility.getConnectedNeuronIds( connAlleles, outNeuronAlleles
+			.keySet(), false );
+
+	List genes = new ArrayList();
+	genes.add( Integer.valueOf( seeds.length ) );
+	for ( int i = 0; i < seeds.length; ++i )
+		genes.add( Long.valueOf( seeds[ i ] ) );
+
+	// connections in gene order, which is the order each neuron sums its inputs in
+	Iterator it = connAlleles.iterator();
+	while ( it.hasNext() ) {
+		ConnectionAllele connAllele = (ConnectionAllele) it.next();
+		if ( relevant.contains( connAllele.getDestNeuronId() ) ) {
+			genes.add( connAllele.getSrcNeuronId() );
+			genes.add( connAllele.getDestNeuronId() );
+			genes.add( Long.valueOf( Double.doubleToLongBits( connAllele.getWeight() ) ) );
+		}
+	}
+	it = NeatChromosomeUtility.getNeuronMap( alleles, null ).values().iterator();
+	while ( it.hasNext() ) {
+		NeuronAllele neuronAllele = (NeuronAllele) it.next();
+		if ( relevant.contains( neuronAllele.getInnovationId() ) ) {
+			genes.add( neuronAllele.getInnovationId() );
+			genes.add( neuronAllele.getActivationType() );
+		}
+	}
+	return new Key( genes.toArray() );
+}
+
+/**
+ * @param key from <code>key()</code>
+ * @return remembered fitness, or null if there is none
+ */
+public Integer get( Object key ) {
+	Integer result = (Integer) current.get( key );
+	if ( result == null ) {
+		result = (Integer) previous.get( key );
+		if ( result != null )
+			current.put( key, result );
+	}
+	return result;
+}
+
+/**
+ * @param key from <code>key()</code>
+ * @param fitness fitness of a complete evaluation with the seeds of <code>key</code>
+ */
+public void put( Object key, int fitness ) {
+	current.put( key, Integer.valueOf( fitness ) );
+}
+
+/**
+ * @return number of fitness values remembered
+ */
+public int size() {
+	return current.size();
+}
+
+/**
+ * Array of values compared element by element, with its hash code computed once.
+ */
+private static class Key {
+
+private final Object[] values;
+
+private final int hash;
+
+private Key( Object[] someValues ) {
+	values = someValues;
+	hash = Arrays.hashCode( someValues );
+}
+
+public int hashCode() {
+	return hash;
+}
+
+public boolean equals( Object o ) {
+	if ( !( o instanceof Key ) )
+		return false;
+	Key other = (Key) o;
+	return hash == other.hash && Arrays.equals( values, other.values );
+}
+}
+}
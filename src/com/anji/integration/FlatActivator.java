@@ -0,0 +1,206 @@
+/*
+ * Copyright (C) 2004 Derek James and Philip Tucker
+ *
+ * This file is part of ANJI (Another NEAT Java Implementation).
+ *
+ * ANJI is free software; you can redistribute it and/or modify it under the terms of the GNU
+ * General Public License as published by the Free Software Foundation; either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See
+ * the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program; if
+ * not, write to the Free Software Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA
+ */
+package com.anji.integration;
+
+import com.anji.nn.FlatNet;
+import com.anji.nn.FlatNetBatch;
+
+/**
+ * Activator interface on a <code>FlatNet</code>; gives the same responses as an
+ * <code>AnjiActivator</code> on the <code>AnjiNet</code> of the same chromosome.
+ *
+ * @see com.anji.integration.AnjiActivator
+ */
+public class FlatActivator implements Activator {
+
+private FlatNet net;
+
+private int numCycles = 1;
+
+private int outputDimension;
+
+/**
+ * @param aNet ANN
+ * @param aNumCycles number of times input pattern is "shown" to network before a result is
+ * returned; this allows for recurrent connections to take effect
+ * @throws IllegalArgumentException
+ */
+public FlatActivator( FlatNet aNet, int aNumCycles ) throws IllegalArgumentException {
+	super();
+	setNumCycles( aNumCycles );
+	net = aNet;
+	outputDimension = aNet.getOutputDimension();
+
+	// verify consistent response ranges
+	double minResponseValue = net.getOutputFunc( 0 ).getMinValue();
+	double maxResponseValue = net.getOutputFunc( 0 ).getMaxValue();
+	for ( int i = 1; i < outputDimension; ++i )
+		if ( minResponseValue != net.getOutputFunc( i ).getMinValue()
+				|| maxResponseValue != net.getOutputFunc( i ).getMaxValue() )
+			throw new IllegalArgumentException( "min and max values for response nodes differ" );
+}
+
+/**
+ * @return next output pattern given no input, i.e. the previous input pattern
+ */
+public double[] next() {
+	return next( (double[]) null );
+}
+
+/**
+ * @param newInputValues input pattern; if null, the previous input pattern is used
+ * @return next output pattern
+ */
+public double[] next( double[] newInputValues ) {
+	return next( newInputValues, new double[ outputDimension ] );
+}
+
+/**
+ * @param newInputValues input pattern; if null, the previous input pattern is used
+ * @param result array the output pattern is written to
+ * @return <code>result</code>
+ */
+public double[] next( double[] newInputValues, double[] result ) {
+	if ( newInputValues != null ) {
+		if ( newInputValues.length != net.getInputDimension() )
+			throw new IllegalArgumentException( "can not change array dimension" );
+		net.setInputs( newInputValues );
+	}
+	for ( int cycle = 0; cycle < numCycles; ++cycle )
+		net.activate();
+	for ( int idx = 0; idx < outputDimension; ++idx )
+		result[ idx ] = net.getOutput( idx );
+	return result;
+}
+
+/**
+ * @param newInputValues input pattern sequence
+ * @return next output pattern sequence
+ */
+public double[][] next( double[][] newInputValues ) {
+	double[][] result = new double[ newInputValues.length ][];
+	for ( int i = 0; i < newInputValues.length; ++i )
+		result[ i ] = next( newInputValues[ i ] );
+	return result;
+}
+
+/**
+ * @param batchSize number of lanes
+ * @return activator of <code>batchSize</code> independent copies of this network, each starting
+ * from initial state
+ */
+public BatchActivator newBatchActivator( int batchSize ) {
+	return new FlatBatchActivator( this, new FlatNetBatch( net, batchSize ) );
+}
+
+/**
+ * clear all memory in network, including neurons and recurrent connections
+ */
+public void reset() {
+	net.reset();
+}
+
+/**
+ * @see java.lang.Object#toString()
+ */
+public String toString() {
+	return net.toString();
+}
+
+/**
+ * @see com.anji.integration.Activator#toXml()
+ */
+public String toXml() {
+	return net.toXml();
+}
+
+/**
+ * @see com.anji.integration.Activator#getName()
+ */
+public String getName() {
+	return net.getName();
+}
+
+/**
+ * @param aNumCycles number of times input pattern is "shown" to network before a result is
+ * returned; this allows for recurrent connections to take effect
+ * @throws IllegalArgumentException
+ */
+public void setNumCycles( int aNumCycles ) throws IllegalArgumentException {
+	if ( aNumCycles < 1 )
+		throw new IllegalArgumentException( "numCycles must be >= 1" );
+	numCycles = aNumCycles;
+}
+
+/**
+ * @return number of times input pattern is "shown" to network before a result is returned
+ */
+public int getNumCycles() {
+	return numCycles;
+}
+
+/**
+ * @return dimension of input pattern
+ */
+public int getInputDimension() {
+	return net.getInputDimension();
+}
+
+/**
+ * @return dimension of output pattern
+ */
+public int getOutputDimension() {
+	return outputDimension;
+}
+
+/**
+ * @return true if network contains any recurrent connections, false otherwise
+ */
+public boolean isRecurrent() {
+	return net.isRecurrent();
+}
+
+/**
+ * @return min response
+ */
+public double getMinResponse() {
+	return net.getOutputFunc( 0 ).getMinValue();
+}
+
+/**
+ * @return max responses
+ */
+public double getMaxResponse() {
+	return net.getOutputFunc( 0 ).getMaxValue();
+}
+
+/**
+ * @see com.anji.util.XmlPersistable#getXmlRootTag()
+ */
+public String getXmlRootTag() {
+	return "network";
+}
+
+/**
+ * @see com.anji.util.XmlPersistable#getXmld()
+ */
+public String getXmld() {
+	return net.getName();
+}
+
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright (C) 2004 Derek James and Philip Tucker
+ *
+ * This file is part of ANJI (Another NEAT Java Implementation).
+ *
+ * ANJI is free software; you can redistribute it and/or modify it under the terms of the GNU
+ * General Public License as published by the Free Software Foundation; either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See
+ * the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program; if
+ * not, write to the Free Software Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA
+ */
+package com.anji.integration;
+
+import com.anji.nn.FlatNetBatch;
+
+/**
+ * Batch activator on a <code>FlatNetBatch</code>; each lane gives the same responses as a
+ * <code>FlatActivator</code> on the same network.
+ *
+ * @see com.anji.integration.FlatActivator
+ */
+public class FlatBatchActivator implements BatchActivator {
+
+private FlatNetBatch batch;
+
+private FlatActivator activator;
+
+private int numCycles;
+
+/**
+ * @param anActivator activator of the network the lanes are copies of; supplies response range
+ * and number of cycles
+ * @param aBatch lanes
+ */
+public FlatBatchActivator( FlatActivator anActivator, FlatNetBatch aBatch ) {
+	activator = anActivator;
+	batch = aBatch;
+	numCycles = anActivator.getNumCycles();
+}
+
+/**
+ * @see BatchActivator#next(double[][], double[][])
+ */
+public double[][] next( double[][] stimuli, double[][] responses ) {
+	int numLanes = batch.getNumLanes();
+	if ( stimuli != null )
+		for ( int lane = 0; lane < numLanes; ++lane )
+			if ( stimuli[ lane ] != null ) {
+				if ( stimuli[ lane ].length != getInputDimension() )
+					throw new IllegalArgumentException( "can not change array dimension" );
+				batch.setInputs( lane, stimuli[ lane ] );
+			}
+	for ( int cycle = 0; cycle < numCycles; ++cycle )
+		batch.activate();
+	int outputDimension = getOutputDimension();
+	for ( int lane = 0; lane < numLanes; ++lane )
+		for ( int idx = 0; idx < outputDimension; ++idx )
+			responses[ lane ][ idx ] = batch.getOutput( lane, idx );
+	return responses;
+}
+
+/**
+ * @see BatchActivator#reset()
+ */
+public void reset() {
+	batch.reset();
+}
+
+/**
+ * @see BatchActivator#reset(int)
+ */
+public void reset( int lane ) {
+	batch.reset( lane );
+}
+
+/**
+ * @see BatchActivator#getBatchSize()
+ */
+public int getBatchSize() {
+	return batch.getNumLanes();
+}
+
+/**
+ * @see BatchActivator#isRecurrent()
+ */
+public boolean isRecurrent() {
+	return activator.isRecurrent();
+}
+
+/**
+ * @see BatchActivator#getMinResponse()
+ */
+public double getMinResponse() {
+	return activator.getMinResponse();
+}
+
+/**
+ * @see BatchActivator#getMaxResponse()
+ */
+public double getMaxResponse() {
+	return activator.getMaxResponse();
+}
+
+/**
+ * @see BatchActivator#getInputDimension()
+ */
+public int getInputDimension() {
+	return activator.getInputDimension();
+}
+
+/**
+ * @see BatchActivator#getOutputDimension()
+ */
+public int getOutputDimension() {
+	return activator.getOutputDimension();
+}
+}
@@ -0,0 +1,216 @@
+/*
+ * Copyright (C) 2004 Derek James and Philip Tucker
+ *
+ * This file is part of ANJI (Another NEAT Java Implementation).
+ *
+ * ANJI is free software; you can redistribute it and/or modify it under the terms of the GNU
+ * General Public License as published by the Free Software Foundation; either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See
+ * the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program; if
+ * not, write to the Free Software Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA
+ */
+package com.anji.integration;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+
+import org.jgap.Chromosome;
+
+import com.anji.neat.ConnectionAllele;
+import com.anji.neat.NeatChromosomeUtility;
+import com.anji.neat.NeuronAllele;
+import com.anji.neat.NeuronType;
+import com.anji.nn.ActivationFunction;
+import com.anji.nn.ActivationFunctionFactory;
+import com.anji.nn.FlatNet;
+import com.anji.nn.RecurrencyPolicy;
+import com.anji.util.Configurable;
+import com.anji.util.Properties;
+
+/**
+ * Constructs a <code>FlatNet</code> from a chromosome, with the same neurons, connections and
+ * recurrency as the <code>AnjiNet</code> built by <code>AnjiNetTranscriber</code>, but without
+ * building the object graph. <code>AnjiNetTranscriber</code> walks back from the output neurons
+ * layer by layer; a connection is realized if its destination is reached, and with
+ * <code>RecurrencyPolicy.BEST_GUESS</code> it is recurrent if its source is no further from the
+ * outputs than its destination. Distances from the outputs are computed here in one breadth first
+ * search instead.
+ *
+ * @see com.anji.integration.AnjiNetTranscriber
+ */
+public class FlatNetTranscriber implements Transcriber, Configurable {
+
+private RecurrencyPolicy recurrencyPolicy = RecurrencyPolicy.BEST_GUESS;
+
+/**
+ * if true, neurons get the approximation of their activation function where one is registered
+ */
+private boolean approximate = false;
+
+/**
+ * ctor
+ */
+public FlatNetTranscriber() {
+	this( RecurrencyPolicy.BEST_GUESS );
+}
+
+/**
+ * ctor
+ * @param aPolicy
+ */
+public FlatNetTranscriber( RecurrencyPolicy aPolicy ) {
+	recurrencyPolicy = aPolicy;
+}
+
+/**
+ * @see Configurable#init(Properties)
+ */
+public void init( Properties props ) {
+	recurrencyPolicy = RecurrencyPolicy.load( props );
+	approximate = props.getBooleanProperty( ActivationFunctionFactory.APPROXIMATE_KEY, false );
+}
+
+/**
+ * @see Transcriber#transcribe(Chromosome)
+ */
+public Object transcribe( Chromosome genotype ) throws TranscriberException {
+	return newFlatNet( genotype );
+}
+
+/**
+ * create new <code>FlatNet</code> from <code>genotype</code>
+ *
+ * @param genotype chromosome to transcribe
+ * @return phenotype
+ * @throws TranscriberException
+ */
+public FlatNet newFlatNet( Chromosome genotype ) throws TranscriberException {
+	Collection alleles = genotype.getAlleles();
+
+	// neurons indexed inputs first, then outputs, then hidden, each by innovation ID
+	SortedMap inNeuronAlleles = NeatChromosomeUtility.getNeuronMap( alleles, NeuronType.INPUT );
+	SortedMap outNeuronAlleles = NeatChromosomeUtility.getNeuronMap( alleles, NeuronType.OUTPUT );
+	SortedMap hiddenNeuronAlleles = NeatChromosomeUtility.getNeuronMap( alleles, NeuronType.HIDDEN );
+	List neuronAlleles = new ArrayList( inNeuronAlleles.values() );
+	neuronAlleles.addAll( outNeuronAlleles.values() );
+	neuronAlleles.addAll( hiddenNeuronAlleles.values() );
+	int numNeurons = neuronAlleles.size();
+	long[] neuronIds = new long[ numNeurons ];
+	ActivationFunction[] funcs = new ActivationFunction[ numNeurons ];
+	Map indexes = new HashMap();
+	for ( int n = 0; n < numNeurons; ++n ) {
+		NeuronAllele neuronAllele = (NeuronAllele) neuronAlleles.get( n );
+		neuronIds[ n ] = neuronAllele.getInnovationId().longValue();
+		funcs[ n ] = ActivationFunctionFactory.getInstance().get(
+				neuronAllele.getActivationType().toString(), approximate );
+		if ( funcs[ n ] == null )
+			throw new TranscriberException( "unknown activation function: " + neuronAllele.toString() );
+		indexes.put( neuronAllele.getInnovationId(), Integer.valueOf( n ) );
+	}
+	int numInputs = inNeuronAlleles.size();
+	int numOutputs = outNeuronAlleles.size();
+	int[] inputNeurons = new int[ numInputs ];
+	for ( int i = 0; i < numInputs; ++i )
+		inputNeurons[ i ] = i;
+	int[] outputNeurons = new int[ numOutputs ];
+	for ( int i = 0; i < numOutputs; ++i )
+		outputNeurons[ i ] = numInputs + i;
+
+	// connections in gene order, with missing neurons detected only for realized connections
+	List connAlleles = NeatChromosomeUtility.getConnectionList( alleles );
+	int numConns = connAlleles.size();
+	int[] srcs = new int[ numConns ];
+	int[] dests = new int[ numConns ];
+	for ( int c = 0; c < numConns; ++c ) {
+		ConnectionAllele connAllele = (ConnectionAllele) connAlleles.get( c );
+		Integer src = (Integer) indexes.get( connAllele.getSrcNeuronId() );
+		Integer dest = (Integer) indexes.get( connAllele.getDestNeuronId() );
+		srcs[ c ] = ( src == null ) ? -1 : src.intValue();
+		dests[ c ] = ( dest == null ) ? -1 : dest.intValue();
+	}
+
+	// distance of each neuron from the outputs, -1 if none is reached
+	int[] incomingCounts = new int[ numNeurons + 1 ];
+	for ( int c = 0; c < numConns; ++c )
+		if ( dests[ c ] >= 0 )
+			++incomingCounts[ dests[ c ] + 1 ];
+	for ( int n = 0; n < numNeurons; ++n )
+		incomingCounts[ n + 1 ] += incomingCounts[ n ];
+	int[] incoming = new int[ incomingCounts[ numNeurons ] ];
+	int[] filled = new int[ numNeurons ];
+	for ( int c = 0; c < numConns; ++c )
+		if ( dests[ c ] >= 0 )
+			incoming[ incomingCounts[ dests[ c ] ] + filled[ dests[ c ] ]++ ] = c;
+	int[] distances = new int[ numNeurons ];
+	int[] queue = new int[ numNeurons ];
+	int queued = 0;
+	for ( int n = 0; n < numNeurons; ++n )
+		distances[ n ] = -1;
+	for ( int i = 0; i < numOutputs; ++i ) {
+		distances[ outputNeurons[ i ] ] = 0;
+		queue[ queued++ ] = outputNeurons[ i ];
+	}
+	int numRealized = 0;
+	for ( int q = 0; q < queued; ++q ) {
+		int n = queue[ q ];
+		for ( int k = incomingCounts[ n ]; k < incomingCounts[ n + 1 ]; ++k ) {
+			int c = incoming[ k ];
+			if ( srcs[ c ] < 0 )
+				throw new TranscriberException( "connection with missing src or dest neuron: "
+						+ connAlleles.get( c ).toString() );
+			++numRealized;
+			if ( distances[ srcs[ c ] ] < 0 ) {
+				distances[ srcs[ c ] ] = distances[ n ] + 1;
+				queue[ queued++ ] = srcs[ c ];
+			}
+		}
+	}
+
+	// realized connections in the order AnjiNetTranscriber creates them: by distance of the
+	// destination, then gene order
+	int[] connSrcs = new int[ numRealized ];
+	int[] connDests = new int[ numRealized ];
+	double[] connWeights = new double[ numRealized ];
+	boolean[] connRecurrent = new boolean[ numRealized ];
+	int r = 0;
+	for ( int distance = 0; r < numRealized; ++distance ) {
+		for ( int c = 0; c < numConns; ++c ) {
+			if ( dests[ c ] < 0 || distances[ dests[ c ] ] != distance )
+				continue;
+			connSrcs[ r ] = srcs[ c ];
+			connDests[ r ] = dests[ c ];
+			connWeights[ r ] = ( (ConnectionAllele) connAlleles.get( c ) ).getWeight();
+			if ( RecurrencyPolicy.LAZY.equals( recurrencyPolicy ) )
+				connRecurrent[ r ] = true;
+			else if ( RecurrencyPolicy.BEST_GUESS.equals( recurrencyPolicy ) )
+				connRecurrent[ r ] = ( distances[ srcs[ c ] ] <= distance );
+			++r;
+		}
+	}
+
+	try {
+		return new FlatNet( genotype.getId().toString(), neuronIds, funcs, inputNeurons,
+				outputNeurons, connSrcs, connDests, connWeights, connRecurrent );
+	}
+	catch ( IllegalArgumentException e ) {
+		throw new TranscriberException( e.getMessage() );
+	}
+}
+
+/**
+ * @see com.anji.integration.Transcriber#getPhenotypeClass()
+ */
+public Class getPhenotypeClass() {
+	return FlatNet.class;
+}
+}
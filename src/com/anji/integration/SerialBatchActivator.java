@@ -0,0 +1,114 @@
+/*
+ * Copyright (C) 2004 Derek James and Philip Tucker
+ *
+ * This file is part of ANJI (Another NEAT Java Implementation).
+ *
+ * ANJI is free software; you can redistribute it and/or modify it under the terms of the GNU
+ * General Public License as published by the Free Software Foundation; either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See
+ * the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program; if
+ * not, write to the Free Software Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA
+ */
+package com.anji.integration;
+
+/**
+ * Batch activator activating one <code>Activator</code> per lane in turn, for networks without
+ * a batched implementation. Lanes of a network that is not recurrent may share one activator,
+ * since its responses do not depend on previous inputs.
+ */
+public class SerialBatchActivator implements BatchActivator {
+
+private Activator[] lanes;
+
+private boolean recurrent;
+
+/**
+ * last input of each lane, since lanes sharing an activator do not share their input
+ */
+private double[][] lastStimuli;
+
+/**
+ * @param someLanes activator of each lane
+ * @param isRecurrent true if the activators' responses depend on previous inputs
+ */
+public SerialBatchActivator( Activator[] someLanes, boolean isRecurrent ) {
+	lanes = someLanes;
+	recurrent = isRecurrent;
+	lastStimuli = new double[ someLanes.length ][];
+}
+
+/**
+ * @see BatchActivator#next(double[][], double[][])
+ */
+public double[][] next( double[][] stimuli, double[][] responses ) {
+	for ( int lane = 0; lane < lanes.length; ++lane ) {
+		if ( stimuli != null && stimuli[ lane ] != null )
+			lastStimuli[ lane ] = stimuli[ lane ];
+		lanes[ lane ].next( lastStimuli[ lane ], responses[ lane ] );
+	}
+	return responses;
+}
+
+/**
+ * @see BatchActivator#reset()
+ */
+public void reset() {
+	for ( int lane = 0; lane < lanes.length; ++lane )
+		lanes[ lane ].reset();
+}
+
+/**
+ * @see BatchActivator#reset(int)
+ */
+public void reset( int lane ) {
+	lanes[ lane ].reset();
+}
+
+/**
+ * @see BatchActivator#getBatchSize()
+ */
+public int getBatchSize() {
+	return lanes.length;
+}
+
+/**
+ * @see BatchActivator#isRecurrent()
+ */
+public boolean isRecurrent() {
+	return recurrent;
+}
+
+/**
+ * @see BatchActivator#getMinResponse()
+ */
+public double getMinResponse() {
+	return lanes[ 0 ].getMinResponse();
+}
+
+/**
+ * @see BatchActivator#getMaxResponse()
+ */
+public double getMaxResponse() {
+	return lanes[ 0 ].getMaxResponse();
+}
+
+/**
+ * @see BatchActivator#getInputDimension()
+ */
+public int getInputDimension() {
+	return lanes[ 0 ].getInputDimension();
+}
+
+/**
+ * @see BatchActivator#getOutputDimension()
+ */
+public int getOutputDimension() {
+	return lanes[ 0 ].getOutputDimension();
+}
+}
@@ -23,6 +23,8 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Random;
+import java.util.function.IntConsumer;
 
 import org.apache.log4j.Logger;
 import org.jgap.BulkFitnessFunction;
@@ -30,7 +32,7 @@ import org.jgap.Chromosome;
 
 import com.anji.util.Configurable;
 import com.anji.util.Properties;
-import com.anji.util.Randomizer;
+import com.anji.util.WorkerPool;
 
 /**
  * Determines fitness based on how close <code>Activator</code> output is to a target.
@@ -73,7 +75,9 @@ private int maxFitnessValue;
 
 private ActivatorTranscriber activatorFactory;
 
-private Randomizer randomizer;
+private TrialScheduler trialScheduler;
+
+private WorkerPool workerPool;
 
 /**
  * See <a href=" {@docRoot}/params.htm" target="anji_params">Parameter Details </a> for
@@ -83,7 +87,8 @@ private Randomizer randomizer;
  */
 public void init( Properties props ) {
 	try {
-		randomizer = (Randomizer) props.singletonObjectProperty( Randomizer.class );
+		trialScheduler = (TrialScheduler) props.singletonObjectProperty( TrialScheduler.class );
+		workerPool = (WorkerPool) props.singletonObjectProperty( WorkerPool.class );
 		activatorFactory = (ActivatorTranscriber) props
 				.singletonObjectProperty( ActivatorTranscriber.class );
 
@@ -119,54 +124,89 @@ protected void setMaxFitnessValue( int aMaxFitnessValue ) {
  * present the stimuli to the activator. The stimuli are presented in random order to ensure the
  * underlying network is not memorizing the sequence of inputs. Calculation of the fitness based
  * on error is delegated to the subclass. This method adjusts fitness for network size, based on
- * configuration.
+ * configuration. Chromosomes are evaluated in parallel when <code>fitness.threads</code> is
+ * more than 1.
  * 
  * @param genotypes <code>List</code> contains <code>Chromosome</code> objects.
  * @see TargetFitnessFunction#calculateErrorFitness(double[][], double, double)
  */
 final public void evaluate( List genotypes ) {
-	Iterator it = genotypes.iterator();
-	while ( it.hasNext() ) {
-		Chromosome genotype = (Chromosome) it.next();
-
-		try {
-			Activator activator = activatorFactory.newActivator( genotype );
-
-			List idxs = new ArrayList();
-			for ( int i = 0; i < stimuli.length; ++i )
-				idxs.add( new Integer( i ) );
-			Collections.shuffle( idxs, randomizer.getRand() );
-
-			Iterator iter = idxs.iterator();
-
-			double[][] shuffledStimuli = new double[ stimuli.length ][ stimuli[ 0 ].length ];
-
-			int k = 0;
-			while ( iter.hasNext() ) {
-				Integer idx = (Integer) iter.next();
-				int i = idx.intValue();
-				for ( int j = 0; j < stimuli[ 0 ].length; j++ )
-					shuffledStimuli[ k ][ j ] = stimuli[ i ][ j ];
-				k++;
-			}
-
-			double[][] shuffledResponses = activator.next( shuffledStimuli );
-			double[][] responses = new double[ shuffledResponses.length ][ 1 ];
-
-			for ( int i = 0; i < responses.length; ++i ) {
-				Integer idx = (Integer) idxs.get( i );
-				responses[ idx.intValue() ] = shuffledResponses[ i ];
-			}
-
-			genotype.setFitnessValue( calculateErrorFitness( responses, activator.getMinResponse(),
-					activator.getMaxResponse() )
-					- (int) ( adjustForNetworkSizeFactor * genotype.size() ) );
+	final Chromosome[] chromosomes = (Chromosome[]) genotypes.toArray( new Chromosome[ genotypes
+			.size() ] );
+	trialScheduler.nextGeneration();
+	workerPool.execute( chromosomes.length, new IntConsumer() {
+
+		public void accept( int c ) {
+			evaluate( chromosomes[ c ] );
 		}
-		catch ( TranscriberException e ) {
-			logger.warn( "transcriber error: " + e.getMessage() );
-			genotype.setFitnessValue( 1 );
+	} );
+}
+
+/**
+ * Transcribe <code>genotype</code> to an <code>Activator</code> confined to the calling thread
+ * and set its fitness from the responses to the stimuli. The presentation order is shuffled
+ * with the chromosome's trial seed, so it does not depend on which thread evaluates it, and with
+ * common seeds it is the same for the whole generation. Flat networks without recurrent
+ * connections are shown all stimuli at once through a <code>BatchActivator</code>.
+ * 
+ * @param genotype
+ */
+private void evaluate( Chromosome genotype ) {
+	try {
+		Activator activator = activatorFactory.newActivator( genotype );
+		double[][] responses;
+		if ( activator instanceof FlatActivator && !( (FlatActivator) activator ).isRecurrent() ) {
+			// without recurrent connections the order of presentation does not matter, so all
+			// stimuli are presented at once
+			responses = new double[ stimuli.length ][ activator.getOutputDimension() ];
+			( (FlatActivator) activator ).newBatchActivator( stimuli.length ).next( stimuli,
+					responses );
 		}
+		else
+			responses = presentShuffled( activator, genotype );
+
+		genotype.setFitnessValue( calculateErrorFitness( responses, activator.getMinResponse(),
+				activator.getMaxResponse() )
+				- (int) ( adjustForNetworkSizeFactor * genotype.size() ) );
+	}
+	catch ( TranscriberException e ) {
+		logger.warn( "transcriber error: " + e.getMessage() );
+		genotype.setFitnessValue( 1 );
+	}
+}
+
+/**
+ * @param activator
+ * @param genotype chromosome whose trial seed shuffles the stimuli
+ * @return responses to the stimuli presented one after the other in shuffled order, by stimulus
+ */
+private double[][] presentShuffled( Activator activator, Chromosome genotype ) {
+	List idxs = new ArrayList();
+	for ( int i = 0; i < stimuli.length; ++i )
+		idxs.add( new Integer( i ) );
+	Collections.shuffle( idxs, new Random( trialScheduler.getSeed( genotype, 0 ) ) );
+
+	Iterator iter = idxs.iterator();
+
+	double[][] shuffledStimuli = new double[ stimuli.length ][ stimuli[ 0 ].length ];
+
+	int k = 0;
+	while ( iter.hasNext() ) {
+		Integer idx = (Integer) iter.next();
+		int i = idx.intValue();
+		for ( int j = 0; j < stimuli[ 0 ].length; j++ )
+			shuffledStimuli[ k ][ j ] = stimuli[ i ][ j ];
+		k++;
+	}
+
+	double[][] shuffledResponses = activator.next( shuffledStimuli );
+	double[][] responses = new double[ shuffledResponses.length ][ 1 ];
+
+	for ( int i = 0; i < responses.length; ++i ) {
+		Integer idx = (Integer) idxs.get( i );
+		responses[ idx.intValue() ] = shuffledResponses[ i ];
 	}
+	return responses;
 }
 
 /**
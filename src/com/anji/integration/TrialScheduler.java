@@ -0,0 +1,94 @@
+/*
+ * Copyright (C) 2004 Derek James and Philip Tucker
+ *
+ * This file is part of ANJI (Another NEAT Java Implementation).
+ *
+ * ANJI is free software; you can redistribute it and/or modify it under the terms of the GNU
+ * General Public License as published by the Free Software Foundation; either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See
+ * the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program; if
+ * not, write to the Free Software Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA
+ */
+package com.anji.integration;
+
+import org.jgap.Chromosome;
+
+import com.anji.util.Configurable;
+import com.anji.util.Properties;
+import com.anji.util.Randomizer;
+
+/**
+ * Hands out the random seeds of fitness trials. With common seeds, every chromosome of a
+ * generation plays its trials with the same list of seeds, so differences in fitness within a
+ * generation come from the chromosomes rather than from luck; the list changes every generation
+ * so no chromosome is selected for one lucky set of trials. Otherwise each chromosome gets seeds
+ * of its own, derived from its ID. Either way a run can be replayed from its random seed.
+ */
+public class TrialScheduler implements Configurable {
+
+/**
+ * properties key, true to give every chromosome in a generation the same trial seeds
+ */
+public final static String COMMON_SEEDS_KEY = "fitness.common.seeds";
+
+/**
+ * keeps seeds of common trials apart from those derived from chromosome IDs
+ */
+private final static long COMMON_SEEDS_SALT = 0x636f6d6d6f6eL;
+
+private Randomizer randomizer;
+
+private boolean commonSeeds = false;
+
+private volatile long generation = 0;
+
+/**
+ * should call <code>init()</code> after ctor
+ */
+public TrialScheduler() {
+	// noop
+}
+
+/**
+ * See <a href=" {@docRoot}/params.htm" target="anji_params">Parameter Details </a> for
+ * specific property settings.
+ *
+ * @param props configuration parameters
+ */
+public void init( Properties props ) {
+	randomizer = (Randomizer) props.singletonObjectProperty( Randomizer.class );
+	commonSeeds = props.getBooleanProperty( COMMON_SEEDS_KEY, false );
+}
+
+/**
+ * Moves on to the seeds of the next generation; called by fitness functions once at the start of
+ * each bulk evaluation, before any call to <code>getSeed()</code> for that generation.
+ */
+public synchronized void nextGeneration() {
+	++generation;
+}
+
+/**
+ * @param c chromosome being evaluated
+ * @param trial index of trial, from 0
+ * @return seed of trial <code>trial</code> of <code>c</code> in the current generation
+ */
+public long getSeed( Chromosome c, int trial ) {
+	if ( commonSeeds )
+		return randomizer.deriveSeed( COMMON_SEEDS_SALT, generation, trial );
+	return randomizer.deriveSeed( c.getId().longValue(), trial );
+}
+
+/**
+ * @return true if every chromosome in a generation gets the same trial seeds
+ */
+public boolean isCommonSeeds() {
+	return commonSeeds;
+}
+}
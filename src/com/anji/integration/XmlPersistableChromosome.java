@@ -51,6 +51,16 @@ public final static String XML_CHROMOSOME_PRIMARY_PARENT_ID_TAG = "primary-paren
  */
 public final static String XML_CHROMOSOME_SECONDARY_PARENT_ID_TAG = "secondary-parent-id";
 
+/**
+ * XML fitness tag; written for analysis only, a loaded chromosome is evaluated again
+ */
+public final static String XML_CHROMOSOME_FITNESS_TAG = "fitness";
+
+/**
+ * XML screening fitness tag
+ */
+public final static String XML_CHROMOSOME_SCREENING_FITNESS_TAG = "screening-fitness";
+
 private Chromosome chromosome;
 
 /**
@@ -77,6 +87,14 @@ public String toXml() {
 		result.append( "\" " ).append( XML_CHROMOSOME_SECONDARY_PARENT_ID_TAG );
 		result.append( "=\"" ).append( chromosome.getSecondaryParentId() );
 	}
+	if ( chromosome.getFitnessValue() >= 0 ) {
+		result.append( "\" " ).append( XML_CHROMOSOME_FITNESS_TAG );
+		result.append( "=\"" ).append( chromosome.getFitnessValue() );
+	}
+	if ( chromosome.getScreeningFitnessValue() >= 0 ) {
+		result.append( "\" " ).append( XML_CHROMOSOME_SCREENING_FITNESS_TAG );
+		result.append( "=\"" ).append( chromosome.getScreeningFitnessValue() );
+	}
 	result.append( "\">" );
 	Iterator iter = chromosome.getAlleles().iterator();
 	while ( iter.hasNext() ) {
@@ -29,6 +29,7 @@ import org.jgap.BulkFitnessFunction;
 import org.jgap.Chromosome;
 import org.jgap.Genotype;
 import org.jgap.event.GeneticEvent;
+import org.jgap.event.GeneticEventListener;
 
 import com.anji.Copyright;
 import com.anji.integration.LogEventListener;
@@ -152,6 +153,10 @@ public class Evolver implements Configurable {
                 .singletonObjectProperty(FITNESS_FUNCTION_CLASS_KEY);
         config.setBulkFitnessFunction(fitnessFunc);
         maxFitness = fitnessFunc.getMaxFitnessValue();
+        if (fitnessFunc instanceof GeneticEventListener) {
+            config.getEventManager().addEventListener(GeneticEvent.RUN_COMPLETED_EVENT,
+                    (GeneticEventListener) fitnessFunc);
+        }
 
         // load population, either from previous run or random
         genotype = db.loadGenotype(config);
@@ -314,6 +314,65 @@ public static List getConnectionList( Collection alleles ) {
 	return result;
 }
 
+/**
+ * @param connAlleles <code>Collection</code> contains <code>ConnectionAllele</code> objects
+ * @param neuronIds <code>Collection</code> contains <code>Long</code> neuron IDs
+ * @param downstream true to follow connections from source to destination, false to follow
+ * them backward
+ * @return <code>Set</code> contains <code>Long</code> IDs of <code>neuronIds</code> and of all
+ * neurons connected to them by a directed path in the given direction
+ */
+public static Set getConnectedNeuronIds( Collection connAlleles, Collection neuronIds,
+		boolean downstream ) {
+	Set result = new HashSet( neuronIds );
+	List frontier = new ArrayList( neuronIds );
+	while ( !frontier.isEmpty() ) {
+		Collection conns = downstream ? extractConnectionAllelesForSrcNeurons( connAlleles,
+				frontier ) : extractConnectionAllelesForDestNeurons( connAlleles, frontier );
+		frontier.clear();
+		Iterator it = conns.iterator();
+		while ( it.hasNext() ) {
+			ConnectionAllele connAllele = (ConnectionAllele) it.next();
+			Long next = downstream ? connAllele.getDestNeuronId() : connAllele.getSrcNeuronId();
+			if ( result.add( next ) )
+				frontier.add( next );
+		}
+	}
+	return result;
+}
+
+/**
+ * @param connAlleles <code>Collection</code> contains <code>ConnectionAllele</code> objects
+ * @param neuronIds <code>Set</code> contains <code>Long</code> neuron IDs
+ * @return true if the connections between neurons in <code>neuronIds</code> contain no loop,
+ * including connections from a neuron to itself
+ */
+public static boolean isAcyclic( Collection connAlleles, Set neuronIds ) {
+	// repeatedly remove neurons with no incoming connections from the remaining neurons; any
+	// neuron left over is on a loop
+	List conns = new ArrayList();
+	Iterator it = connAlleles.iterator();
+	while ( it.hasNext() ) {
+		ConnectionAllele connAllele = (ConnectionAllele) it.next();
+		if ( neuronIds.contains( connAllele.getSrcNeuronId() )
+				&& neuronIds.contains( connAllele.getDestNeuronId() ) )
+			conns.add( connAllele );
+	}
+	Set remaining = new HashSet( neuronIds );
+	boolean removed = true;
+	while ( removed ) {
+		Set hasIncoming = new HashSet();
+		it = conns.iterator();
+		while ( it.hasNext() ) {
+			ConnectionAllele connAllele = (ConnectionAllele) it.next();
+			if ( remaining.contains( connAllele.getSrcNeuronId() ) )
+				hasIncoming.add( connAllele.getDestNeuronId() );
+		}
+		removed = remaining.retainAll( hasIncoming );
+	}
+	return remaining.isEmpty();
+}
+
 /**
  * non-recursive starting point for recursive search
  * 
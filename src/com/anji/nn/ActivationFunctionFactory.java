@@ -30,9 +30,24 @@ import java.util.Map;
  */
 public class ActivationFunctionFactory {
 
+	/**
+	 * properties key; if true, transcribers build neurons with the approximation of their
+	 * activation function where one is registered, so existing genomes run with it unchanged
+	 */
+	public final static String APPROXIMATE_KEY = "ann.activation.approximate";
+
 	private Map activationFunctions = new HashMap();
 
-	private static ActivationFunctionFactory instance = null;
+	/**
+	 * activation functions by the ID of the function they approximate
+	 */
+	private Map approximations = new HashMap();
+
+	/**
+	 * created when the class is loaded, so <code>getInstance()</code> is safe to call from
+	 * concurrent evaluation threads; the map is never modified after construction
+	 */
+	private final static ActivationFunctionFactory instance = new ActivationFunctionFactory();
 
 	/**
 	 * singleton; initialize map of activation functions
@@ -49,13 +64,16 @@ public class ActivationFunctionFactory {
 		activationFunctions.put( SignedStepActivationFunction.NAME, new SignedStepActivationFunction() );
 		activationFunctions.put( ClampedLinearActivationFunction.NAME, new ClampedLinearActivationFunction() );
 		activationFunctions.put( SignedClampedLinearActivationFunction.NAME, new SignedClampedLinearActivationFunction() );
+		activationFunctions.put( ApproxSigmoidActivationFunction.NAME, new ApproxSigmoidActivationFunction() );
+		activationFunctions.put( ApproxTanhActivationFunction.NAME, new ApproxTanhActivationFunction() );
+		approximations.put( SigmoidActivationFunction.NAME, activationFunctions.get( ApproxSigmoidActivationFunction.NAME ) );
+		approximations.put( TanhActivationFunction.NAME, activationFunctions.get( ApproxTanhActivationFunction.NAME ) );
 	}
 
 	/**
 	 * @return singleton instance
 	 */
 	public static ActivationFunctionFactory getInstance() {
-		if ( instance == null ) instance = new ActivationFunctionFactory();
 		return instance;
 	}
 
@@ -69,6 +87,18 @@ public class ActivationFunctionFactory {
 		return (ActivationFunction) activationFunctions.get( key );
 	}
 
+	/**
+	 * @param key ID of activation function
+	 * @param approximate if true, return the approximation of the function if one is registered
+	 * @return ActivationFunction
+	 * @see #APPROXIMATE_KEY
+	 */
+	public ActivationFunction get( String key, boolean approximate ) {
+		if ( approximate && approximations.containsKey( key ) )
+			return (ActivationFunction) approximations.get( key );
+		return get( key );
+	}
+
 	/**
 	 * @return linear activation function
 	 */
@@ -111,6 +141,20 @@ public class ActivationFunctionFactory {
 		return (ActivationFunction) activationFunctions.get( TanhActivationFunction.NAME );
 	}
 
+	/**
+	 * @return table interpolated sigmoid activation function
+	 */
+	public ActivationFunction getApproxSigmoid() {
+		return (ActivationFunction) activationFunctions.get( ApproxSigmoidActivationFunction.NAME );
+	}
+
+	/**
+	 * @return table interpolated hyperbolic tangent activation function
+	 */
+	public ActivationFunction getApproxTanh() {
+		return (ActivationFunction) activationFunctions.get( ApproxTanhActivationFunction.NAME );
+	}
+
 	/**
 	 * @return hyperbolic tangent of cubic activation function
 	 */
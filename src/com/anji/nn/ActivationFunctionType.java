@@ -55,6 +55,18 @@ public final static ActivationFunctionType SIGMOID = new ActivationFunctionType(
  */
 public final static ActivationFunctionType TANH = new ActivationFunctionType( "tanh" );
 
+/**
+ * table interpolated sigmoid
+ */
+public final static ActivationFunctionType SIGMOID_APPROX = new ActivationFunctionType(
+		"sigmoid-approx" );
+
+/**
+ * table interpolated tanh
+ */
+public final static ActivationFunctionType TANH_APPROX = new ActivationFunctionType(
+		"tanh-approx" );
+
 /**
  * tanh cubic
  */
@@ -91,6 +103,9 @@ public static ActivationFunctionType valueOf( String name ) {
 		types.put( ActivationFunctionType.LINEAR.toString(), ActivationFunctionType.LINEAR );
 		types.put( ActivationFunctionType.SIGMOID.toString(), ActivationFunctionType.SIGMOID );
 		types.put( ActivationFunctionType.TANH.toString(), ActivationFunctionType.TANH );
+		types.put( ActivationFunctionType.SIGMOID_APPROX.toString(),
+				ActivationFunctionType.SIGMOID_APPROX );
+		types.put( ActivationFunctionType.TANH_APPROX.toString(), ActivationFunctionType.TANH_APPROX );
 		types.put( ActivationFunctionType.TANH_CUBIC.toString(), ActivationFunctionType.TANH_CUBIC );
 		types.put( ActivationFunctionType.CLAMPED_LINEAR.toString(),
 				ActivationFunctionType.CLAMPED_LINEAR );
@@ -45,6 +45,14 @@ private List outNeurons;
 
 private Collection recurrentConns;
 
+/**
+ * <code>allNeurons</code> and <code>recurrentConns</code> as arrays, so stepping the network
+ * does not allocate iterators
+ */
+private Neuron[] neuronArray;
+
+private CacheNeuronConnection[] recurrentConnArray;
+
 private String name;
 
 /**
@@ -96,6 +104,9 @@ protected void init( Collection someNeurons, List someInNeurons, List someOutNeu
 	outNeurons = someOutNeurons;
 	recurrentConns = someRecurrentConns;
 	name = aName;
+	neuronArray = (Neuron[]) allNeurons.toArray( new Neuron[ allNeurons.size() ] );
+	recurrentConnArray = (CacheNeuronConnection[]) recurrentConns
+			.toArray( new CacheNeuronConnection[ recurrentConns.size() ] );
 }
 
 /**
@@ -181,18 +192,12 @@ public String getName() {
  */
 public void step() {
 	// populate cache connections with values from previous step
-	Iterator iter = recurrentConns.iterator();
-	while ( iter.hasNext() ) {
-		CacheNeuronConnection c = (CacheNeuronConnection) iter.next();
-		c.step();
-	}
+	for ( int i = 0; i < recurrentConnArray.length; ++i )
+		recurrentConnArray[ i ].step();
 
 	// notify all neurons to recalculate value for current step
-	iter = allNeurons.iterator();
-	while ( iter.hasNext() ) {
-		Neuron n = (Neuron) iter.next();
-		n.step();
-	}
+	for ( int i = 0; i < neuronArray.length; ++i )
+		neuronArray[ i ].step();
 }
 
 /**
@@ -200,11 +205,8 @@ public void step() {
  * with no forward outputs
  */
 public void fullyActivate() {
-	Iterator it = allNeurons.iterator();
-	while ( it.hasNext() ) {
-		Neuron n = (Neuron) it.next();
-		n.getValue();
-	}
+	for ( int i = 0; i < neuronArray.length; ++i )
+		neuronArray[ i ].getValue();
 }
 
 /**
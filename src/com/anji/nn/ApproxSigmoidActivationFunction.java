@@ -0,0 +1,112 @@
+/*
+ * Copyright (C) 2004 Derek James and Philip Tucker
+ *
+ * This file is part of ANJI (Another NEAT Java Implementation).
+ *
+ * ANJI is free software; you can redistribute it and/or modify it under the terms of the GNU
+ * General Public License as published by the Free Software Foundation; either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See
+ * the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program; if
+ * not, write to the Free Software Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA
+ */
+package com.anji.nn;
+
+/**
+ * Table interpolated approximation of <code>SigmoidActivationFunction</code>, without a call to
+ * <code>Math.exp()</code>. The logistic function is tabulated at steps of 1/64 over [-16, 16]
+ * and interpolated linearly between entries; outside that range it is the value at the nearer
+ * end. The absolute error against <code>SigmoidActivationFunction</code> is at most 3.0e-6 for
+ * every input; the result is always within [0, 1].
+ * 
+ * @see com.anji.nn.SigmoidActivationFunction
+ */
+public class ApproxSigmoidActivationFunction implements ActivationFunction {
+
+	private final static double RANGE = 16;
+
+	private final static double STEPS_PER_UNIT = 64;
+
+	private final static int LAST = (int) ( 2 * RANGE * STEPS_PER_UNIT );
+
+	/**
+	 * logistic function at <code>i / STEPS_PER_UNIT - RANGE</code>, with a copy of the last
+	 * entry appended so interpolation never reads past the end
+	 */
+	private final static double[] TABLE = new double[ LAST + 2 ];
+	static {
+		for ( int i = 0; i <= LAST; ++i )
+			TABLE[ i ] = 1 / ( 1 + Math.exp( -( i / STEPS_PER_UNIT - RANGE ) ) );
+		TABLE[ LAST + 1 ] = TABLE[ LAST ];
+	}
+
+	/**
+	 * identifying string
+	 */
+	public final static String NAME = ActivationFunctionType.SIGMOID_APPROX.toString();
+
+	/**
+	 * @see Object#toString()
+	 */
+	public String toString() {
+		return NAME;
+	}
+
+	/**
+	 * This class should only be accessd via ActivationFunctionFactory.
+	 */
+	ApproxSigmoidActivationFunction() {
+		// no-op
+	}
+
+	/**
+	 * @param x
+	 * @return logistic function <code>1 / ( 1 + e^-x )</code> interpolated from the table, at
+	 * most 3.0e-6 off
+	 */
+	static double logistic( double x ) {
+		double t = ( x + RANGE ) * STEPS_PER_UNIT;
+		if ( t <= 0 )
+			return TABLE[ 0 ];
+		if ( t >= LAST )
+			return TABLE[ LAST ];
+		int i = (int) t;
+		double lo = TABLE[ i ];
+		return lo + ( t - i ) * ( TABLE[ i + 1 ] - lo );
+	}
+
+	/**
+	 * Modified classic sigmoid, approximated.
+	 * 
+	 * @see com.anji.nn.ActivationFunction#apply(double)
+	 */
+	public double apply( double input ) {
+		return logistic( input * SigmoidActivationFunction.SLOPE );
+	}
+
+	/**
+	 * @see com.anji.nn.ActivationFunction#getMaxValue()
+	 */
+	public double getMaxValue() {
+		return 1;
+	}
+	
+	/**
+	 * @see com.anji.nn.ActivationFunction#getMinValue()
+	 */
+	public double getMinValue() {
+		return 0;
+	}
+
+	/**
+	 * @see com.anji.nn.ActivationFunction#cost()
+	 */
+	public long cost() {
+		return 234;
+	}
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright (C) 2004 Derek James and Philip Tucker
+ *
+ * This file is part of ANJI (Another NEAT Java Implementation).
+ *
+ * ANJI is free software; you can redistribute it and/or modify it under the terms of the GNU
+ * General Public License as published by the Free Software Foundation; either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See
+ * the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program; if
+ * not, write to the Free Software Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA
+ */
+package com.anji.nn;
+
+/**
+ * Table interpolated approximation of <code>TanhActivationFunction</code>, computed as
+ * <code>2 * logistic( 2 * input ) - 1</code> from the table of
+ * <code>ApproxSigmoidActivationFunction</code>. The absolute error against
+ * <code>TanhActivationFunction</code> is at most 6.0e-6 for every input; the result is always
+ * within [-1, 1].
+ * 
+ * @see com.anji.nn.TanhActivationFunction
+ * @see com.anji.nn.ApproxSigmoidActivationFunction
+ */
+public class ApproxTanhActivationFunction implements ActivationFunction {
+
+	/**
+	 * identifying string
+	 */
+	public final static String NAME = ActivationFunctionType.TANH_APPROX.toString();
+
+	/**
+	 * @see Object#toString()
+	 */
+	public String toString() {
+		return NAME;
+	}
+
+	/**
+	 * This class should only be accessd via ActivationFunctionFactory.
+	 */
+	ApproxTanhActivationFunction() {
+		// no-op
+	}
+
+	/**
+	 * Hyperbolic tangent, approximated.
+	 * 
+	 * @see com.anji.nn.ActivationFunction#apply(double)
+	 */
+	public double apply( double input ) {
+		return -1 + 2 * ApproxSigmoidActivationFunction.logistic( 2 * input );
+	}
+
+	/**
+	 * @see com.anji.nn.ActivationFunction#getMaxValue()
+	 */
+	public double getMaxValue() {
+		return 1;
+	}
+	
+	/**
+	 * @see com.anji.nn.ActivationFunction#getMinValue()
+	 */
+	public double getMinValue() {
+		return -1;
+	}
+
+	/**
+	 * @see com.anji.nn.ActivationFunction#cost()
+	 */
+	public long cost() {
+		return 222;
+	}
+}
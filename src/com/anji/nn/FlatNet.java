@@ -0,0 +1,528 @@
+/*
+ * Copyright (C) 2004 Derek James and Philip Tucker
+ *
+ * This file is part of ANJI (Another NEAT Java Implementation).
+ *
+ * ANJI is free software; you can redistribute it and/or modify it under the terms of the GNU
+ * General Public License as published by the Free Software Foundation; either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See
+ * the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program; if
+ * not, write to the Free Software Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA
+ */
+package com.anji.nn;
+
+import java.util.function.Consumer;
+
+/**
+ * Neural network compiled into flat arrays, computing the same values as the <code>AnjiNet</code>
+ * with the same neurons and connections. All state lives in one array: neuron values, then the
+ * values of recurrent connections, i.e. the weighted values their source neurons had after the
+ * previous step, then the network input. The incoming connections of every neuron are stored in
+ * compressed rows of state indexes and weights, rows in an order in which no neuron is computed
+ * before the sources of its non-recurrent connections, so one pass over the rows computes a step.
+ * Neurons sum their incoming connections in the order they were given, as <code>Neuron</code>
+ * does, so the sums are identical.
+ *
+ * @see com.anji.nn.AnjiNet
+ */
+public class FlatNet {
+
+final static byte LINEAR = 0;
+
+final static byte SIGMOID = 1;
+
+final static byte TANH = 2;
+
+final static byte SIGMOID_APPROX = 3;
+
+final static byte TANH_APPROX = 4;
+
+final static byte OTHER = 5;
+
+private String name;
+
+private long[] neuronIds;
+
+ActivationFunction[] funcs;
+
+int numNeurons;
+
+int[] inputNeurons;
+
+int[] outputNeurons;
+
+/**
+ * neuron values, then recurrent connection values, then network input
+ */
+double[] state;
+
+/**
+ * source neuron and weight of each recurrent connection
+ */
+int[] cacheSrcs;
+
+double[] cacheWeights;
+
+/**
+ * rows in evaluation order: neuron, activation code and range of incoming connections
+ */
+int[] rowNeurons;
+
+byte[] rowCodes;
+
+int[] rowStarts;
+
+/**
+ * row of each neuron
+ */
+int[] neuronRows;
+
+/**
+ * state index and weight of each incoming connection, by row
+ */
+int[] inSrcs;
+
+double[] inWeights;
+
+/**
+ * neurons not yet computed in the first step after a reset, see <code>stepCaches()</code>
+ */
+private boolean[] dirty;
+
+private boolean fresh;
+
+/**
+ * generated code computing a step after the first, see <code>FlatNetCompiler</code>; null to
+ * interpret the rows
+ */
+private Consumer evaluator;
+
+/**
+ * compiler counting the activations of this network until it has a class for it, and the key it
+ * counts them under; null if the network is not to be compiled
+ */
+private FlatNetCompiler compiler;
+
+private String compilerKey;
+
+private int activations = 0;
+
+/**
+ * Compiles a network. Connections are given in the order <code>AnjiNetTranscriber</code> adds
+ * them to their destination neurons; each input neuron reads its network input after its other
+ * incoming connections, as it does once <code>AnjiActivator</code> adds its pattern.
+ *
+ * @param aName
+ * @param someNeuronIds ID of each neuron, by neuron index
+ * @param someFuncs activation function of each neuron, by neuron index
+ * @param someInputNeurons neuron index of each network input
+ * @param someOutputNeurons neuron index of each network output
+ * @param connSrcs source neuron index of each connection
+ * @param connDests destination neuron index of each connection
+ * @param connWeights weight of each connection
+ * @param connRecurrent true for each connection that reads the value its source had after the
+ * previous step, as <code>CacheNeuronConnection</code> does
+ * @throws IllegalArgumentException if the non-recurrent connections form a loop
+ */
+public FlatNet( String aName, long[] someNeuronIds, ActivationFunction[] someFuncs,
+		int[] someInputNeurons, int[] someOutputNeurons, int[] connSrcs, int[] connDests,
+		double[] connWeights, boolean[] connRecurrent ) throws IllegalArgumentException {
+	name = aName;
+	neuronIds = someNeuronIds;
+	funcs = someFuncs;
+	numNeurons = someNeuronIds.length;
+	inputNeurons = someInputNeurons;
+	outputNeurons = someOutputNeurons;
+
+	int numCaches = 0;
+	for ( int c = 0; c < connRecurrent.length; ++c )
+		if ( connRecurrent[ c ] )
+			++numCaches;
+	state = new double[ numNeurons + numCaches + inputNeurons.length ];
+	cacheSrcs = new int[ numCaches ];
+	cacheWeights = new double[ numCaches ];
+
+	// incoming connections of each neuron, in the order given
+	int[] inCounts = new int[ numNeurons ];
+	for ( int c = 0; c < connDests.length; ++c )
+		++inCounts[ connDests[ c ] ];
+	for ( int i = 0; i < inputNeurons.length; ++i )
+		++inCounts[ inputNeurons[ i ] ];
+	int[] firstIn = new int[ numNeurons + 1 ];
+	for ( int n = 0; n < numNeurons; ++n )
+		firstIn[ n + 1 ] = firstIn[ n ] + inCounts[ n ];
+	int[] srcs = new int[ firstIn[ numNeurons ] ];
+	double[] weights = new double[ srcs.length ];
+	int[] filled = new int[ numNeurons ];
+
+	// neurons whose value each neuron needs in the same step, for ordering the rows
+	int[] dependents = new int[ connDests.length ];
+	int[] dependentCounts = new int[ numNeurons ];
+	int[] pending = new int[ numNeurons ];
+	int cache = 0;
+	for ( int c = 0; c < connDests.length; ++c ) {
+		int dest = connDests[ c ];
+		int k = firstIn[ dest ] + filled[ dest ]++;
+		if ( connRecurrent[ c ] ) {
+			// the cache holds the weighted value, which is read as is
+			cacheSrcs[ cache ] = connSrcs[ c ];
+			cacheWeights[ cache ] = connWeights[ c ];
+			srcs[ k ] = numNeurons + cache++;
+			weights[ k ] = 1.0d;
+		}
+		else {
+			srcs[ k ] = connSrcs[ c ];
+			weights[ k ] = connWeights[ c ];
+			++dependentCounts[ connSrcs[ c ] ];
+			++pending[ dest ];
+		}
+	}
+	for ( int i = 0; i < inputNeurons.length; ++i ) {
+		int n = inputNeurons[ i ];
+		int k = firstIn[ n ] + filled[ n ]++;
+		srcs[ k ] = numNeurons + numCaches + i;
+		weights[ k ] = 1.0d;
+	}
+
+	// order rows so that sources come before the neurons that read them in the same step
+	int[] firstDependent = new int[ numNeurons + 1 ];
+	for ( int n = 0; n < numNeurons; ++n )
+		firstDependent[ n + 1 ] = firstDependent[ n ] + dependentCounts[ n ];
+	int[] filledDependents = new int[ numNeurons ];
+	for ( int c = 0; c < connDests.length; ++c )
+		if ( !connRecurrent[ c ] ) {
+			int src = connSrcs[ c ];
+			dependents[ firstDependent[ src ] + filledDependents[ src ]++ ] = connDests[ c ];
+		}
+	rowNeurons = new int[ numNeurons ];
+	int numRows = 0;
+	for ( int n = 0; n < numNeurons; ++n )
+		if ( pending[ n ] == 0 )
+			rowNeurons[ numRows++ ] = n;
+	for ( int r = 0; r < numRows; ++r ) {
+		int n = rowNeurons[ r ];
+		for ( int d = firstDependent[ n ]; d < firstDependent[ n + 1 ]; ++d )
+			if ( --pending[ dependents[ d ] ] == 0 )
+				rowNeurons[ numRows++ ] = dependents[ d ];
+	}
+	if ( numRows < numNeurons )
+		throw new IllegalArgumentException( "loop of non-recurrent connections in network " + name );
+
+	// lay out incoming connections by row
+	rowCodes = new byte[ numNeurons ];
+	rowStarts = new int[ numNeurons + 1 ];
+	neuronRows = new int[ numNeurons ];
+	inSrcs = new int[ srcs.length ];
+	inWeights = new double[ srcs.length ];
+	int k = 0;
+	for ( int r = 0; r < numNeurons; ++r ) {
+		int n = rowNeurons[ r ];
+		neuronRows[ n ] = r;
+		rowCodes[ r ] = code( funcs[ n ] );
+		rowStarts[ r ] = k;
+		for ( int j = firstIn[ n ]; j < firstIn[ n + 1 ]; ++j, ++k ) {
+			inSrcs[ k ] = srcs[ j ];
+			inWeights[ k ] = weights[ j ];
+		}
+	}
+	rowStarts[ numNeurons ] = k;
+
+	dirty = new boolean[ numNeurons ];
+	reset();
+}
+
+/**
+ * @param func
+ * @return code of activation functions computed inline, <code>OTHER</code> for the rest
+ */
+private static byte code( ActivationFunction func ) {
+	if ( func.getClass() == LinearActivationFunction.class )
+		return LINEAR;
+	if ( func.getClass() == SigmoidActivationFunction.class )
+		return SIGMOID;
+	if ( func.getClass() == TanhActivationFunction.class )
+		return TANH;
+	if ( func.getClass() == ApproxSigmoidActivationFunction.class )
+		return SIGMOID_APPROX;
+	if ( func.getClass() == ApproxTanhActivationFunction.class )
+		return TANH_APPROX;
+	return OTHER;
+}
+
+/**
+ * @param values network input, copied
+ */
+public void setInputs( double[] values ) {
+	System.arraycopy( values, 0, state, numNeurons + cacheSrcs.length, inputNeurons.length );
+}
+
+/**
+ * Advances the network one step, like <code>AnjiNet.step()</code> followed by
+ * <code>AnjiNet.fullyActivate()</code>: recurrent connections take the weighted values their
+ * sources had after the previous step, then every neuron is computed from them and the input.
+ */
+public void activate() {
+	if ( evaluator != null && !fresh ) {
+		evaluator.accept( state );
+		return;
+	}
+	if ( compiler != null && ++activations >= FlatNetCompiler.REPORT_INTERVAL )
+		reportActivations();
+	stepCaches();
+
+	double[] s = state;
+	for ( int r = 0; r < rowNeurons.length; ++r ) {
+		double sum = 0.0f;
+		for ( int k = rowStarts[ r ]; k < rowStarts[ r + 1 ]; ++k )
+			sum += inWeights[ k ] * s[ inSrcs[ k ] ];
+		s[ rowNeurons[ r ] ] = clamp( apply( r, sum ) );
+	}
+}
+
+/**
+ * @param anEvaluator computes a step from the state array exactly as <code>activate()</code>
+ * does after the first step, or null to interpret the rows
+ */
+void setEvaluator( Consumer anEvaluator ) {
+	evaluator = anEvaluator;
+}
+
+/**
+ * @param aCompiler compiler to report activations to, see
+ * <code>FlatNetCompiler.activated()</code>
+ * @param aKey key to report them under
+ */
+void setCompiler( FlatNetCompiler aCompiler, String aKey ) {
+	compiler = aCompiler;
+	compilerKey = aKey;
+}
+
+/**
+ * reports the activations counted since the last report, and stops counting once the compiler
+ * has given this network generated code
+ */
+private void reportActivations() {
+	int count = activations;
+	activations = 0;
+	if ( compiler.activated( this, compilerKey, count ) ) {
+		compiler = null;
+		compilerKey = null;
+	}
+}
+
+/**
+ * @return number of connections read in a step, including recurrent connections and inputs
+ */
+public int getNumTerms() {
+	return inSrcs.length + cacheSrcs.length;
+}
+
+/**
+ * Updates the values of recurrent connections. Right after a reset no neuron has been computed
+ * yet, and <code>AnjiNet</code> computes the sources of recurrent connections on demand, one
+ * connection after the other, with the values of the connections updated before; this is
+ * repeated here so the first outputs are identical too.
+ */
+private void stepCaches() {
+	double[] s = state;
+	int base = numNeurons;
+	if ( fresh ) {
+		for ( int n = 0; n < numNeurons; ++n )
+			dirty[ n ] = true;
+		for ( int c = 0; c < cacheSrcs.length; ++c )
+			s[ base + c ] = clamp( cacheWeights[ c ] * pull( cacheSrcs[ c ] ) );
+		fresh = false;
+	}
+	else {
+		for ( int c = 0; c < cacheSrcs.length; ++c )
+			s[ base + c ] = clamp( cacheWeights[ c ] * s[ cacheSrcs[ c ] ] );
+	}
+}
+
+/**
+ * @param n neuron index
+ * @return value of neuron <code>n</code>, computing it and the neurons it reads first if they
+ * were not computed since the reset
+ */
+private double pull( int n ) {
+	if ( dirty[ n ] ) {
+		int r = neuronRows[ n ];
+		double sum = 0.0f;
+		for ( int k = rowStarts[ r ]; k < rowStarts[ r + 1 ]; ++k ) {
+			int src = inSrcs[ k ];
+			sum += inWeights[ k ] * ( ( src < numNeurons ) ? pull( src ) : state[ src ] );
+		}
+		state[ n ] = clamp( apply( r, sum ) );
+		dirty[ n ] = false;
+	}
+	return state[ n ];
+}
+
+/**
+ * @return the order in which the first step after a reset computes values before the row pass:
+ * neuron indexes for neurons pulled on demand, <code>-( c + 1 )</code> for recurrent connection
+ * <code>c</code>; depends on the structure only, see <code>stepCaches()</code>
+ */
+int[] getFirstStepOrder() {
+	int[] result = new int[ numNeurons + cacheSrcs.length ];
+	boolean[] pending = new boolean[ numNeurons ];
+	for ( int n = 0; n < numNeurons; ++n )
+		pending[ n ] = true;
+	int count = 0;
+	for ( int c = 0; c < cacheSrcs.length; ++c ) {
+		count = addPulled( cacheSrcs[ c ], pending, result, count );
+		result[ count++ ] = -( c + 1 );
+	}
+	int[] trimmed = new int[ count ];
+	System.arraycopy( result, 0, trimmed, 0, count );
+	return trimmed;
+}
+
+/**
+ * appends neuron <code>n</code> to <code>order</code> after the neurons it reads, as
+ * <code>pull( n )</code> computes them
+ */
+private int addPulled( int n, boolean[] pending, int[] order, int count ) {
+	if ( !pending[ n ] )
+		return count;
+	int r = neuronRows[ n ];
+	int result = count;
+	for ( int k = rowStarts[ r ]; k < rowStarts[ r + 1 ]; ++k )
+		if ( inSrcs[ k ] < numNeurons )
+			result = addPulled( inSrcs[ k ], pending, order, result );
+	pending[ n ] = false;
+	order[ result++ ] = n;
+	return result;
+}
+
+/**
+ * @param r row
+ * @param input
+ * @return activation function of the neuron of row <code>r</code> applied to <code>input</code>,
+ * with the same expressions as the function classes
+ */
+double apply( int r, double input ) {
+	switch ( rowCodes[ r ] ) {
+		case LINEAR:
+			return input;
+		case SIGMOID:
+			return 1 / ( 1 + Math.exp( -( input * SigmoidActivationFunction.SLOPE ) ) );
+		case TANH:
+			return -1 + ( 2 / ( 1 + Math.exp( -2 * ( input ) ) ) );
+		case SIGMOID_APPROX:
+			return ApproxSigmoidActivationFunction.logistic( input * SigmoidActivationFunction.SLOPE );
+		case TANH_APPROX:
+			return -1 + 2 * ApproxSigmoidActivationFunction.logistic( 2 * input );
+		default:
+			return funcs[ rowNeurons[ r ] ].apply( input );
+	}
+}
+
+static double clamp( double value ) {
+	return Math.min( Math.max( value, -Double.MAX_VALUE ), Double.MAX_VALUE );
+}
+
+/**
+ * @param idx
+ * @return value of output neuron <code>idx</code> after the last step
+ */
+public double getOutput( int idx ) {
+	return state[ outputNeurons[ idx ] ];
+}
+
+/**
+ * @param idx
+ * @return activation function of output neuron <code>idx</code>
+ */
+public ActivationFunction getOutputFunc( int idx ) {
+	return funcs[ outputNeurons[ idx ] ];
+}
+
+/**
+ * clear all neuron and recurrent connection values
+ */
+public void reset() {
+	if ( compiler != null && activations > 0 )
+		reportActivations();
+	for ( int i = 0; i < numNeurons + cacheSrcs.length; ++i )
+		state[ i ] = 0.0d;
+	fresh = true;
+}
+
+/**
+ * @return number of network inputs
+ */
+public int getInputDimension() {
+	return inputNeurons.length;
+}
+
+/**
+ * @return number of network outputs
+ */
+public int getOutputDimension() {
+	return outputNeurons.length;
+}
+
+/**
+ * @return true if the network has recurrent connections
+ */
+public boolean isRecurrent() {
+	return cacheSrcs.length > 0;
+}
+
+/**
+ * @return name of network
+ */
+public String getName() {
+	return name;
+}
+
+/**
+ * @see java.lang.Object#toString()
+ */
+public String toString() {
+	return getName();
+}
+
+/**
+ * @return XML representation of the neurons and connections; unlike
+ * <code>AnjiNet.toXml()</code>, without layout hints
+ */
+public String toXml() {
+	StringBuffer result = new StringBuffer();
+	result.append( "<" ).append( AnjiNet.XML_TAG ).append( ">\n" );
+	result.append( "<title>" ).append( getName() ).append( "</title>\n" );
+	for ( int n = 0; n < numNeurons; ++n ) {
+		result.append( "<" ).append( Neuron.XML_TAG ).append( " id=\"" ).append( neuronIds[ n ] );
+		result.append( "\" activation=\"" ).append( funcs[ n ].toString() ).append( "\" />\n" );
+	}
+	for ( int r = 0; r < numNeurons; ++r ) {
+		int n = rowNeurons[ r ];
+		for ( int k = rowStarts[ r ]; k < rowStarts[ r + 1 ]; ++k ) {
+			int src = inSrcs[ k ];
+			boolean recurrent = ( src >= numNeurons );
+			if ( recurrent && src - numNeurons >= cacheSrcs.length )
+				continue; // network input
+			int srcNeuron = recurrent ? cacheSrcs[ src - numNeurons ] : src;
+			double weight = recurrent ? cacheWeights[ src - numNeurons ] : inWeights[ k ];
+			result.append( "<" ).append( Connection.XML_TAG ).append( " " );
+			result.append( NeuronConnection.SRC_XML_TAG ).append( "=\"" ).append(
+					neuronIds[ srcNeuron ] ).append( "\" " );
+			result.append( NeuronConnection.DEST_XML_TAG ).append( "=\"" ).append( neuronIds[ n ] )
+					.append( "\" " );
+			result.append( NeuronConnection.WEIGHT_XML_TAG ).append( "=\"" ).append( weight )
+					.append( "\" " );
+			result.append( NeuronConnection.RECURRENT_XML_TAG ).append( "=\"" ).append( recurrent )
+					.append( "\" />\n" );
+		}
+	}
+	result.append( "</" ).append( AnjiNet.XML_TAG ).append( ">\n" );
+	return result.toString();
+}
+}
@@ -0,0 +1,193 @@
+/*
+ * Copyright (C) 2004 Derek James and Philip Tucker
+ *
+ * This file is part of ANJI (Another NEAT Java Implementation).
+ *
+ * ANJI is free software; you can redistribute it and/or modify it under the terms of the GNU
+ * General Public License as published by the Free Software Foundation; either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See
+ * the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program; if
+ * not, write to the Free Software Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA
+ */
+package com.anji.nn;
+
+/**
+ * Independent copies of a <code>FlatNet</code>, called lanes, stepped together. State is laid
+ * out state index major and lane minor, so every weight is loaded once per step and applied to all
+ * lanes in a loop over adjacent values, which the JIT can vectorize. Each lane computes exactly
+ * the values its own <code>FlatNet</code> would, including the first step after a reset.
+ *
+ * @see com.anji.nn.FlatNet
+ */
+public class FlatNetBatch {
+
+private final FlatNet net;
+
+private final int numLanes;
+
+/**
+ * state of <code>net</code> per lane: value of state index <code>i</code> of lane
+ * <code>l</code> at <code>i * numLanes + l</code>
+ */
+private final double[] state;
+
+private final int[] firstStepOrder;
+
+/**
+ * lanes whose next step is the first after a reset
+ */
+private final boolean[] fresh;
+
+private int numFresh;
+
+private final double[] sums;
+
+/**
+ * @param aNet network whose structure and weights are shared, not its state
+ * @param aNumLanes number of copies
+ */
+public FlatNetBatch( FlatNet aNet, int aNumLanes ) {
+	net = aNet;
+	numLanes = aNumLanes;
+	state = new double[ net.state.length * numLanes ];
+	firstStepOrder = net.getFirstStepOrder();
+	fresh = new boolean[ numLanes ];
+	sums = new double[ numLanes ];
+	reset();
+}
+
+/**
+ * @param lane
+ * @param values network input of <code>lane</code>, copied
+ */
+public void setInputs( int lane, double[] values ) {
+	int base = net.numNeurons + net.cacheSrcs.length;
+	for ( int i = 0; i < net.inputNeurons.length; ++i )
+		state[ ( base + i ) * numLanes + lane ] = values[ i ];
+}
+
+/**
+ * advances every lane one step, as <code>FlatNet.activate()</code>
+ */
+public void activate() {
+	double[] s = state;
+	int lanes = numLanes;
+	int cacheBase = net.numNeurons;
+
+	// recurrent connections; lanes right after a reset compute their sources on demand first
+	if ( numFresh > 0 ) {
+		for ( int i = 0; i < firstStepOrder.length; ++i ) {
+			int op = firstStepOrder[ i ];
+			if ( op >= 0 ) {
+				int r = net.neuronRows[ op ];
+				for ( int l = 0; l < lanes; ++l )
+					if ( fresh[ l ] )
+						s[ op * lanes + l ] = FlatNet.clamp( net.apply( r, rowSum( r, l ) ) );
+			}
+			else {
+				int c = -op - 1;
+				double w = net.cacheWeights[ c ];
+				int src = net.cacheSrcs[ c ] * lanes;
+				int dest = ( cacheBase + c ) * lanes;
+				for ( int l = 0; l < lanes; ++l )
+					if ( fresh[ l ] )
+						s[ dest + l ] = FlatNet.clamp( w * s[ src + l ] );
+			}
+		}
+	}
+	for ( int c = 0; c < net.cacheSrcs.length; ++c ) {
+		double w = net.cacheWeights[ c ];
+		int src = net.cacheSrcs[ c ] * lanes;
+		int dest = ( cacheBase + c ) * lanes;
+		for ( int l = 0; l < lanes; ++l )
+			if ( !fresh[ l ] )
+				s[ dest + l ] = FlatNet.clamp( w * s[ src + l ] );
+	}
+	for ( int l = 0; l < lanes; ++l )
+		fresh[ l ] = false;
+	numFresh = 0;
+
+	// neurons, each connection applied across all lanes
+	double[] sum = sums;
+	int[] rowStarts = net.rowStarts;
+	int[] inSrcs = net.inSrcs;
+	double[] inWeights = net.inWeights;
+	for ( int r = 0; r < net.rowNeurons.length; ++r ) {
+		for ( int l = 0; l < lanes; ++l )
+			sum[ l ] = 0.0f;
+		for ( int k = rowStarts[ r ]; k < rowStarts[ r + 1 ]; ++k ) {
+			double w = inWeights[ k ];
+			int src = inSrcs[ k ] * lanes;
+			for ( int l = 0; l < lanes; ++l )
+				sum[ l ] += w * s[ src + l ];
+		}
+		int dest = net.rowNeurons[ r ] * lanes;
+		for ( int l = 0; l < lanes; ++l )
+			s[ dest + l ] = FlatNet.clamp( net.apply( r, sum[ l ] ) );
+	}
+}
+
+/**
+ * @return weighted sum of the incoming connections of row <code>r</code> in <code>lane</code>
+ */
+private double rowSum( int r, int lane ) {
+	double sum = 0.0f;
+	for ( int k = net.rowStarts[ r ]; k < net.rowStarts[ r + 1 ]; ++k )
+		sum += net.inWeights[ k ] * state[ net.inSrcs[ k ] * numLanes + lane ];
+	return sum;
+}
+
+/**
+ * @param lane
+ * @param idx
+ * @return value of output neuron <code>idx</code> of <code>lane</code> after the last step
+ */
+public double getOutput( int lane, int idx ) {
+	return state[ net.outputNeurons[ idx ] * numLanes + lane ];
+}
+
+/**
+ * clear all neuron and recurrent connection values of all lanes
+ */
+public void reset() {
+	for ( int i = 0; i < ( net.numNeurons + net.cacheSrcs.length ) * numLanes; ++i )
+		state[ i ] = 0.0d;
+	for ( int l = 0; l < numLanes; ++l )
+		fresh[ l ] = true;
+	numFresh = numLanes;
+}
+
+/**
+ * clear all neuron and recurrent connection values of <code>lane</code>
+ *
+ * @param lane
+ */
+public void reset( int lane ) {
+	for ( int i = 0; i < net.numNeurons + net.cacheSrcs.length; ++i )
+		state[ i * numLanes + lane ] = 0.0d;
+	if ( !fresh[ lane ] ) {
+		fresh[ lane ] = true;
+		++numFresh;
+	}
+}
+
+/**
+ * @return number of lanes
+ */
+public int getNumLanes() {
+	return numLanes;
+}
+
+/**
+ * @return network all lanes are copies of
+ */
+public FlatNet getNet() {
+	return net;
+}
+}
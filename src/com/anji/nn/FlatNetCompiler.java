@@ -0,0 +1,459 @@
+/*
+ * Copyright (C) 2004 Derek James and Philip Tucker
+ *
+ * This file is part of ANJI (Another NEAT Java Implementation).
+ *
+ * ANJI is free software; you can redistribute it and/or modify it under the terms of the GNU
+ * General Public License as published by the Free Software Foundation; either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See
+ * the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program; if
+ * not, write to the Free Software Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA
+ */
+package com.anji.nn;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.DoubleUnaryOperator;
+
+import javax.tools.FileObject;
+import javax.tools.ForwardingJavaFileManager;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileManager;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+
+import org.apache.log4j.Logger;
+
+/**
+ * Generates, compiles and loads a class computing the steps of a <code>FlatNet</code> as straight
+ * line code, with weights as constants and neuron values in local variables, so the JIT compiles
+ * a network into register arithmetic instead of running the loop over its rows. The class is
+ * compiled in memory with the system Java compiler, which takes tens of milliseconds, so a network
+ * is interpreted until networks with its structure and weights have been activated often enough
+ * to pay for it; a network is left interpreted if no compiler is available, e.g. on a JRE, or if
+ * it has more connections than the configured maximum.
+ * <p>
+ * Networks with the same structure and weights share their activation count and class. Each
+ * class is loaded by its own class loader, and counts and classes are held in a least recently
+ * used cache bounded by the size of their source and bytecode, so a class whose networks are all
+ * discarded is unloaded once it is evicted. The generated code performs the same floating point
+ * operations in the same order as <code>FlatNet</code>, so responses are identical.
+ *
+ * @see com.anji.nn.FlatNet
+ */
+public class FlatNetCompiler {
+
+private final static Logger logger = Logger.getLogger( FlatNetCompiler.class );
+
+/**
+ * connections summed per generated method; keeps methods well under the size above which HotSpot
+ * does not compile them
+ */
+private final static int TERMS_PER_METHOD = 256;
+
+/**
+ * activations a network counts before reporting them, see <code>activated()</code>
+ */
+final static int REPORT_INTERVAL = 1024;
+
+private final static String CLASS_NAME = "GeneratedFlatNet";
+
+private final static AtomicInteger classCount = new AtomicInteger();
+
+private final JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+
+private final int maxTerms;
+
+private final long maxCacheBytes;
+
+private final long minActivations;
+
+/**
+ * key source with placeholder class name, value <code>Entry</code>; access ordered
+ */
+private final LinkedHashMap cache = new LinkedHashMap( 16, 0.75f, true );
+
+private long cacheBytes = 0;
+
+private long compiledCount = 0;
+
+private long reusedCount = 0;
+
+private long interpretedCount = 0;
+
+private boolean warned = false;
+
+/**
+ * activations counted and compiled class, if any, of networks with the same source, and the size
+ * of both in the cache
+ */
+private static class Entry {
+
+private Class clazz;
+
+private long bytes;
+
+private long activations = 0;
+
+private boolean compiling = false;
+
+private Entry( long someBytes ) {
+	bytes = someBytes;
+}
+}
+
+/**
+ * @param aMaxTerms networks reading more connections than this per step are left interpreted
+ * @param aMaxCacheBytes bound on source and bytecode size of the cached classes
+ * @param aMinActivations activations of networks with the same structure and weights after
+ * which they are compiled
+ */
+public FlatNetCompiler( int aMaxTerms, long aMaxCacheBytes, long aMinActivations ) {
+	maxTerms = aMaxTerms;
+	maxCacheBytes = aMaxCacheBytes;
+	minActivations = aMinActivations;
+}
+
+/**
+ * Makes <code>net</code> compute its steps with a generated class if one was compiled for a
+ * network with the same structure and weights; otherwise <code>net</code> is interpreted and
+ * counts its activations, and is compiled once they reach the minimum. Thread safe.
+ *
+ * @param net
+ * @return true if <code>net</code> runs generated code, false if it is interpreted for now
+ */
+public boolean compile( FlatNet net ) {
+	if ( net.getNumTerms() > maxTerms )
+		return false;
+	if ( compiler == null ) {
+		synchronized ( this ) {
+			if ( !warned )
+				logger.warn( "no system Java compiler available, networks are interpreted" );
+			warned = true;
+		}
+		return false;
+	}
+
+	String source = generate( net );
+	Class clazz = null;
+	synchronized ( this ) {
+		Entry entry = entry( source );
+		if ( entry.clazz != null ) {
+			clazz = entry.clazz;
+			++reusedCount;
+		}
+		else
+			++interpretedCount;
+	}
+	if ( clazz != null )
+		return install( net, clazz );
+	net.setCompiler( this, source );
+	return false;
+}
+
+/**
+ * Adds activations of an interpreted network to the count of its source, compiling the source
+ * once the count reaches the minimum, and switches <code>net</code> to the class once there is
+ * one. Called by <code>net</code> on the thread activating it.
+ *
+ * @param net
+ * @param source key <code>compile()</code> gave <code>net</code>
+ * @param activations activations since the last report
+ * @return true if <code>net</code> runs generated code from now on
+ */
+boolean activated( FlatNet net, String source, long activations ) {
+	Entry entry;
+	Class clazz;
+	boolean compileNow = false;
+	synchronized ( this ) {
+		entry = entry( source );
+		entry.activations += activations;
+		clazz = entry.clazz;
+		if ( clazz == null && !entry.compiling && entry.activations >= minActivations ) {
+			entry.compiling = true;
+			compileNow = true;
+		}
+	}
+	if ( compileNow ) {
+		// a failed source stays marked as compiling and is not tried again
+		clazz = compileClass( source );
+		if ( clazz != null )
+			synchronized ( this ) {
+				entry.clazz = clazz;
+				long bytes = bytecodeSize( clazz );
+				entry.bytes += bytes;
+				cacheBytes += bytes;
+				++compiledCount;
+				evict();
+			}
+	}
+	return ( clazz != null ) && install( net, clazz );
+}
+
+/**
+ * @param net
+ * @param clazz class generated from the source of <code>net</code>
+ * @return true if <code>net</code> runs <code>clazz</code> from now on
+ */
+private boolean install( FlatNet net, Class clazz ) {
+	// functions not computed inline are called through the network's own instances
+	DoubleUnaryOperator[] others = new DoubleUnaryOperator[ net.numNeurons ];
+	for ( int n = 0; n < net.numNeurons; ++n ) {
+		final ActivationFunction func = net.funcs[ n ];
+		others[ n ] = new DoubleUnaryOperator() {
+
+			public double applyAsDouble( double input ) {
+				return func.apply( input );
+			}
+		};
+	}
+	try {
+		net.setEvaluator( (Consumer) clazz.getConstructor( new Class[] { DoubleUnaryOperator[].class } )
+				.newInstance( new Object[] { others } ) );
+	}
+	catch ( Exception e ) {
+		logger.warn( "could not instantiate generated class for " + net.getName(), e );
+		return false;
+	}
+	return true;
+}
+
+/**
+ * @return number of networks interpreted at first, classes compiled, networks that reused a
+ * cached class, and cache size
+ */
+public synchronized String toString() {
+	return "interpreted " + interpretedCount + " networks at first, compiled " + compiledCount
+			+ " network classes, reused " + reusedCount + ", " + cache.size() + " cached in "
+			+ cacheBytes + " bytes";
+}
+
+/**
+ * @return cache entry of <code>source</code>, added if missing; call synchronized
+ */
+private Entry entry( String source ) {
+	Entry result = (Entry) cache.get( source );
+	if ( result == null ) {
+		result = new Entry( source.length() * 2L );
+		cache.put( source, result );
+		cacheBytes += result.bytes;
+		evict();
+	}
+	return result;
+}
+
+/**
+ * evicts least recently used entries to stay within the size bound; call synchronized
+ */
+private void evict() {
+	Iterator it = cache.values().iterator();
+	while ( cacheBytes > maxCacheBytes && cache.size() > 1 && it.hasNext() ) {
+		Entry eldest = (Entry) it.next();
+		cacheBytes -= eldest.bytes;
+		it.remove();
+	}
+}
+
+private static long bytecodeSize( Class clazz ) {
+	return ( clazz.getClassLoader() instanceof Loader ) ? ( (Loader) clazz.getClassLoader() ).size
+			: 0;
+}
+
+/**
+ * @param net
+ * @return source of a class computing a step of <code>net</code>, with <code>CLASS_NAME</code>
+ * as class name
+ */
+static String generate( FlatNet net ) {
+	StringBuffer methods = new StringBuffer();
+	StringBuffer calls = new StringBuffer();
+	int method = 0;
+	int numRows = net.rowNeurons.length;
+	int numCaches = net.cacheSrcs.length;
+	int r = 0;
+	int c = 0;
+	while ( r < numRows || c < numCaches ) {
+		calls.append( "\t\tm" ).append( method ).append( "( s );\n" );
+		methods.append( "\tprivate void m" ).append( method ).append( "( double[] s ) {\n" );
+		++method;
+		int terms = 0;
+
+		// values of recurrent connections, from the neuron values of the previous step
+		for ( ; c < numCaches && terms < TERMS_PER_METHOD; ++c, ++terms ) {
+			methods.append( "\t\ts[" ).append( net.numNeurons + c ).append( "] = c( " );
+			methods.append( literal( net.cacheWeights[ c ] ) ).append( " * s[" );
+			methods.append( net.cacheSrcs[ c ] ).append( "] );\n" );
+		}
+		if ( c < numCaches ) {
+			methods.append( "\t}\n\n" );
+			continue;
+		}
+
+		// neurons in row order; values computed in this method are read from locals
+		boolean[] local = new boolean[ net.numNeurons ];
+		while ( r < numRows && ( terms == 0 || terms + rowSize( net, r ) <= TERMS_PER_METHOD ) ) {
+			int n = net.rowNeurons[ r ];
+			StringBuffer sum = new StringBuffer( "0.0" );
+			for ( int k = net.rowStarts[ r ]; k < net.rowStarts[ r + 1 ]; ++k ) {
+				int src = net.inSrcs[ k ];
+				sum.append( " + " );
+				if ( net.inWeights[ k ] != 1.0d )
+					sum.append( literal( net.inWeights[ k ] ) ).append( " * " );
+				if ( src < net.numNeurons && local[ src ] )
+					sum.append( 'v' ).append( src );
+				else
+					sum.append( "s[" ).append( src ).append( ']' );
+			}
+			methods.append( "\t\tdouble v" ).append( n ).append( " = c( " );
+			switch ( net.rowCodes[ r ] ) {
+				case FlatNet.LINEAR:
+					methods.append( sum );
+					break;
+				case FlatNet.SIGMOID:
+					methods.append( "1.0 / ( 1.0 + Math.exp( -( ( " ).append( sum ).append( " ) * " );
+					methods.append( literal( SigmoidActivationFunction.SLOPE ) ).append( " ) ) )" );
+					break;
+				case FlatNet.TANH:
+					methods.append( "-1.0 + ( 2.0 / ( 1.0 + Math.exp( -2.0 * ( " ).append( sum );
+					methods.append( " ) ) ) )" );
+					break;
+				default:
+					methods.append( "f[" ).append( n ).append( "].applyAsDouble( " ).append( sum );
+					methods.append( " )" );
+			}
+			methods.append( " );\n" );
+			methods.append( "\t\ts[" ).append( n ).append( "] = v" ).append( n ).append( ";\n" );
+			local[ n ] = true;
+			terms += rowSize( net, r );
+			++r;
+		}
+		methods.append( "\t}\n\n" );
+	}
+
+	StringBuffer result = new StringBuffer();
+	result.append( "public final class " ).append( CLASS_NAME );
+	result.append( " implements java.util.function.Consumer {\n\n" );
+	result.append( "\tprivate final java.util.function.DoubleUnaryOperator[] f;\n\n" );
+	result.append( "\tpublic " ).append( CLASS_NAME );
+	result.append( "( java.util.function.DoubleUnaryOperator[] f ) {\n\t\tthis.f = f;\n\t}\n\n" );
+	result.append( "\tpublic void accept( Object o ) {\n\t\tdouble[] s = (double[]) o;\n" );
+	result.append( calls ).append( "\t}\n\n" );
+	result.append( methods );
+	result.append( "\tprivate static double c( double value ) {\n" );
+	result.append( "\t\treturn Math.min( Math.max( value, -Double.MAX_VALUE ), Double.MAX_VALUE );\n" );
+	result.append( "\t}\n}\n" );
+	return result.toString();
+}
+
+private static int rowSize( FlatNet net, int r ) {
+	return net.rowStarts[ r + 1 ] - net.rowStarts[ r ];
+}
+
+/**
+ * @param value
+ * @return Java expression for exactly <code>value</code>
+ */
+private static String literal( double value ) {
+	if ( Double.isNaN( value ) || Double.isInfinite( value ) )
+		return "Double.longBitsToDouble( 0x" + Long.toHexString( Double.doubleToRawLongBits( value ) )
+				+ "L )";
+	return "(" + Double.toHexString( value ) + ")";
+}
+
+/**
+ * @param source
+ * @return class compiled from <code>source</code> under a unique name, loaded by its own class
+ * loader, or null if compilation fails
+ */
+private Class compileClass( String source ) {
+	String name = CLASS_NAME + classCount.incrementAndGet();
+	final String text = source.replace( CLASS_NAME, name );
+	JavaFileObject sourceFile = new SimpleJavaFileObject( URI.create( "string:///" + name
+			+ JavaFileObject.Kind.SOURCE.extension ), JavaFileObject.Kind.SOURCE ) {
+
+		public CharSequence getCharContent( boolean ignoreEncodingErrors ) {
+			return text;
+		}
+	};
+	final ByteArrayOutputStream bytecode = new ByteArrayOutputStream();
+	StandardJavaFileManager standardManager = compiler.getStandardFileManager( null, null, null );
+	JavaFileManager manager = new ForwardingJavaFileManager( standardManager ) {
+
+		public JavaFileObject getJavaFileForOutput( JavaFileManager.Location location,
+				String className, JavaFileObject.Kind kind, FileObject sibling ) {
+			return new SimpleJavaFileObject( URI.create( "bytes:///" + className + kind.extension ),
+					kind ) {
+
+				public OutputStream openOutputStream() {
+					return bytecode;
+				}
+			};
+		}
+	};
+	try {
+		boolean success = compiler.getTask( null, manager, null,
+				java.util.Arrays.asList( new String[] { "-g:none", "-proc:none", "-nowarn" } ), null,
+				Collections.singletonList( sourceFile ) ).call().booleanValue();
+		if ( !success ) {
+			logger.warn( "could not compile generated network class " + name );
+			return null;
+		}
+		return new Loader( FlatNetCompiler.class.getClassLoader(), name, bytecode.toByteArray() )
+				.loadClass( name );
+	}
+	catch ( Exception e ) {
+		logger.warn( "could not compile generated network class " + name, e );
+		return null;
+	}
+	finally {
+		try {
+			manager.close();
+		}
+		catch ( Exception e ) {
+			// nothing left to release
+		}
+	}
+}
+
+/**
+ * loads one generated class; the class can be unloaded once neither it nor its loader is
+ * referenced
+ */
+private static class Loader extends ClassLoader {
+
+private final String name;
+
+private byte[] bytes;
+
+private final long size;
+
+private Loader( ClassLoader parent, String aName, byte[] someBytes ) {
+	super( parent );
+	name = aName;
+	bytes = someBytes;
+	size = someBytes.length;
+}
+
+protected Class findClass( String className ) throws ClassNotFoundException {
+	if ( !name.equals( className ) )
+		throw new ClassNotFoundException( className );
+	Class result = defineClass( name, bytes, 0, bytes.length );
+	bytes = null;
+	return result;
+}
+}
+}
@@ -190,6 +190,13 @@ private boolean dirty; // indicates value has not been updated for the current
 
 private Collection incomingConns = new ArrayList();
 
+/**
+ * <code>incomingConns</code> as an array, so <code>getValue()</code> does not allocate an
+ * iterator; null until the first <code>getValue()</code> after a connection is added, so
+ * building a neuron with n connections copies them once instead of n times
+ */
+private Connection[] incomingConnArray = null;
+
 private ActivationFunction func = null;
 
 /**
@@ -213,6 +220,7 @@ public Neuron( ActivationFunction aFunc ) throws IllegalArgumentException {
  */
 public void addIncomingConnection( Connection c ) {
 	incomingConns.add( c );
+	incomingConnArray = null;
 }
 
 /**
@@ -230,12 +238,12 @@ public void step() {
  */
 public double getValue() {
 	if ( dirty ) {
+		if ( incomingConnArray == null )
+			incomingConnArray = (Connection[]) incomingConns.toArray( new Connection[ incomingConns
+					.size() ] );
 		double sum = 0.0f;
-		Iterator it = incomingConns.iterator();
-		while ( it.hasNext() ) {
-			Connection conn = (Connection) it.next();
-			sum += conn.read();
-		}
+		for ( int i = 0; i < incomingConnArray.length; ++i )
+			sum += incomingConnArray[ i ].read();
 		value = Math.min( Math.max( func.apply( sum ), -Double.MAX_VALUE ), Double.MAX_VALUE );
 		dirty = false;
 	}
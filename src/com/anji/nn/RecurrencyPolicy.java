@@ -19,6 +19,7 @@
  */
 package com.anji.nn;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -38,7 +39,6 @@ public class RecurrencyPolicy {
 
 	private String name = null;
 
-	private static Map policies = null;
 
 	/**
 	 * no recurrency allowed; no loops in network
@@ -60,6 +60,20 @@ public class RecurrencyPolicy {
 	 */
 	public final static RecurrencyPolicy LAZY = new RecurrencyPolicy( "lazy" );
 
+	/**
+	 * built once when the class is loaded, so <code>valueOf()</code> is safe to call from
+	 * concurrent evaluation threads
+	 */
+	private final static Map policies;
+	static {
+		Map map = new HashMap();
+		map.put( RecurrencyPolicy.DISALLOWED.toString(), RecurrencyPolicy.DISALLOWED );
+		// TODO map.put( RecurrencyPolicy.MINIMUM.toString(), RecurrencyPolicy.MINIMUM );
+		map.put( RecurrencyPolicy.BEST_GUESS.toString(), RecurrencyPolicy.BEST_GUESS );
+		map.put( RecurrencyPolicy.LAZY.toString(), RecurrencyPolicy.LAZY );
+		policies = Collections.unmodifiableMap( map );
+	}
+
 	private RecurrencyPolicy( String newName ) {
 		name = newName;
 	}
@@ -69,13 +83,6 @@ public class RecurrencyPolicy {
 	 * @return RecurrencyPolicy corresponding to <code>name</code>
 	 */
 	public static RecurrencyPolicy valueOf( String name ) {
-		if ( policies == null ) {
-			policies = new HashMap();
-			policies.put( RecurrencyPolicy.DISALLOWED.toString(), RecurrencyPolicy.DISALLOWED );
-			// TODO policies.put( RecurrencyPolicy.MINIMUM.toString(), RecurrencyPolicy.MINIMUM );
-			policies.put( RecurrencyPolicy.BEST_GUESS.toString(), RecurrencyPolicy.BEST_GUESS );
-			policies.put( RecurrencyPolicy.LAZY.toString(), RecurrencyPolicy.LAZY );
-		}
 		return (RecurrencyPolicy) policies.get( name );
 	}
 
@@ -254,8 +254,18 @@ public static Chromosome chromosomeFromXml( Configuration config, Node chromNode
 
 	ChromosomeMaterial material = new ChromosomeMaterial( genes, primaryParentId,
 			secondaryParentId );
-	return ( id == null ) ? new Chromosome( material, config.nextChromosomeId() )
+	Chromosome result = ( id == null ) ? new Chromosome( material, config.nextChromosomeId() )
 			: new Chromosome( material, id );
+
+	Node fitnessNode = chromNode.getAttributes().getNamedItem(
+			XmlPersistableChromosome.XML_CHROMOSOME_SCREENING_FITNESS_TAG );
+	if ( fitnessNode != null ) {
+		String fitnessStr = fitnessNode.getNodeValue();
+		if ( ( fitnessStr != null ) && ( fitnessStr.length() > 0 ) )
+			result.setScreeningFitnessValue( Integer.parseInt( fitnessStr ) );
+	}
+
+	return result;
 }
 
 /**
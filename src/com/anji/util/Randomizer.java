@@ -12,6 +12,7 @@
 package com.anji.util;
 
 import java.util.Random;
+import java.util.SplittableRandom;
 
 /**
  * Singleton holder of <code>Random</code> object to ensure all of system is using same random
@@ -24,9 +25,9 @@ public class Randomizer implements Configurable {
 
 private static final String RANDOM_SEED_KEY = "random.seed";
 
-private Random rand = new Random();
+private final Random rand = new Random();
 
-private long seed = 0;
+private volatile long seed = 0;
 
 /**
  * should call <code>init()</code> after ctor
@@ -47,6 +48,9 @@ public synchronized void init( Properties props ) {
 }
 
 /**
+ * <code>Random</code> is itself thread-safe, but draws made from concurrent threads come in
+ * no particular order; work that must replay exactly when run in parallel should seed its own
+ * generator with <code>deriveSeed()</code> instead.
  * @return Random
  */
 public Random getRand() {
@@ -59,4 +63,20 @@ public Random getRand() {
 public long getSeed() {
 	return seed;
 }
+
+/**
+ * Derives the seed of an independent random sequence from the run seed and <code>keys</code>,
+ * e.g. a chromosome id and a trial index. The same keys always derive the same seed in a run, so
+ * work seeded this way can be replayed exactly and does not contend on the shared
+ * <code>Random</code>.
+ * 
+ * @param keys
+ * @return derived seed
+ */
+public long deriveSeed( long... keys ) {
+	long result = seed;
+	for ( int i = 0; i < keys.length; ++i )
+		result = new SplittableRandom( result ^ keys[ i ] ).nextLong();
+	return result;
+}
 }
@@ -0,0 +1,142 @@
+/*
+ * Copyright (C) 2004 Derek James and Philip Tucker This file is part of ANJI (Another NEAT Java
+ * Implementation). ANJI is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software Foundation; either
+ * version 2 of the License, or (at your option) any later version. This program is distributed
+ * in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public
+ * License for more details. You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software Foundation, Inc., 59 Temple
+ * Place, Suite 330, Boston, MA 02111-1307 USA
+ */
+package com.anji.util;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+import java.util.function.ObjIntConsumer;
+import java.util.function.Supplier;
+
+/**
+ * Singleton pool of worker threads shared by fitness functions to evaluate independent pieces of
+ * work, e.g. chromosomes or trials, in parallel. Work may itself use the pool; nested work is run
+ * by the same threads without blocking them. With one thread, the default, all work runs serially
+ * on the calling thread.
+ */
+public class WorkerPool implements Configurable {
+
+/**
+ * properties key, number of evaluation threads; 0 uses one per available processor
+ */
+public final static String THREADS_KEY = "fitness.threads";
+
+private int numThreads = 1;
+
+private ForkJoinPool pool = null;
+
+/**
+ * should call <code>init()</code> after ctor
+ */
+public WorkerPool() {
+	// noop
+}
+
+/**
+ * See <a href=" {@docRoot}/params.htm" target="anji_params">Parameter Details </a> for
+ * specific property settings.
+ *
+ * @param props configuration parameters
+ */
+public synchronized void init( Properties props ) {
+	numThreads = props.getIntProperty( THREADS_KEY, 1 );
+	if ( numThreads <= 0 )
+		numThreads = Runtime.getRuntime().availableProcessors();
+	if ( pool != null )
+		pool.shutdown();
+	pool = ( numThreads > 1 ) ? new ForkJoinPool( numThreads ) : null;
+}
+
+/**
+ * @return number of threads work is spread over
+ */
+public int getNumThreads() {
+	return numThreads;
+}
+
+/**
+ * Runs <code>task</code> once for each index from 0 to <code>count - 1</code> and returns when
+ * all have finished. Indexes are started in increasing order: each thread takes the next index
+ * not yet started whenever it finishes one, so work that is expected to take longest should get
+ * the lowest indexes. Tasks must not depend on the order in which they finish, nor on which
+ * thread runs them.
+ *
+ * @param count number of tasks
+ * @param task
+ * @throws RuntimeException first exception thrown by a task
+ */
+public void execute( final int count, final IntConsumer task ) {
+	execute( count, new Supplier() {
+
+		public Object get() {
+			return null;
+		}
+	}, new ObjIntConsumer() {
+
+		public void accept( Object state, int i ) {
+			task.accept( i );
+		}
+	} );
+}
+
+/**
+ * As <code>execute( int, IntConsumer )</code>, but every thread that takes part creates one
+ * state object with <code>newState</code> before its first index and passes it to each task it
+ * runs, e.g. a network that is reset between tasks instead of being built for each. Tasks must
+ * leave the state such that the result of a task does not depend on which tasks ran on it
+ * before.
+ *
+ * @param count number of tasks
+ * @param newState creates the state of a thread
+ * @param task
+ * @throws RuntimeException first exception thrown by <code>newState</code> or a task
+ */
+public <T> void execute( final int count, final Supplier<T> newState, final ObjIntConsumer<T> task ) {
+	if ( pool == null || count < 2 ) {
+		T state = ( count > 0 ) ? newState.get() : null;
+		for ( int i = 0; i < count; ++i )
+			task.accept( state, i );
+		return;
+	}
+
+	final AtomicInteger next = new AtomicInteger();
+	RecursiveAction all = new RecursiveAction() {
+
+		protected void compute() {
+			RecursiveAction[] workers = new RecursiveAction[ Math.min( count, numThreads ) ];
+			for ( int w = 0; w < workers.length; ++w ) {
+				workers[ w ] = new RecursiveAction() {
+
+					protected void compute() {
+						T state = null;
+						boolean started = false;
+						for ( int i = next.getAndIncrement(); i < count; i = next.getAndIncrement() ) {
+							if ( !started ) {
+								state = newState.get();
+								started = true;
+							}
+							task.accept( state, i );
+						}
+					}
+				};
+			}
+			invokeAll( workers );
+		}
+	};
+	if ( ForkJoinTask.getPool() == pool )
+		all.invoke();
+	else
+		pool.invoke( all );
+}
+}
@@ -0,0 +1,461 @@
+package dk.itu.gaer;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+
+/* The game class contains the player, ghosts, pellets and all of the game logic.
+   It has no AWT or Swing dependency, so the fitness function can step it headless.
+   Board and Pacman only draw it and feed it keyboard input. */
+public class Game {
+
+    /* Starting locations of the player and the ghosts */
+    static final int PLAYER_START_X = 200;
+    static final int PLAYER_START_Y = 300;
+    static final int[] GHOST_START_X = {180, 200, 220, 220};
+    static final int[] GHOST_START_Y = {180, 180, 180, 180};
+
+    /* Number of pellets on the board, eating all of them wins the game */
+    public static final int NUM_PELLETS = 173;
+
+    /* Points awarded for each pellet */
+    public static final int PELLET_SCORE = 50;
+
+    /* Wall-clock length of one frame when the game is played on screen */
+    public static final int FRAME_MILLIS = 30;
+
+    /* Number of frames the win and game over screens are shown before going to the title screen */
+    static final int SCREEN_FRAMES = 5000 / FRAME_MILLIS;
+
+    /* Random generator owned by this game, all random choices of the ghosts come from it */
+    SplittableRandom rand;
+
+    /* Seed of the random generator */
+    long seed;
+
+    /* Ghost paths of the first life, replayed instead of moving the ghosts.  Null when the ghosts
+     move themselves */
+    GhostTrajectory trajectory;
+
+    /* Number of frames the ghosts have moved in the first life */
+    int ghostFrames;
+
+    /* Initialize the player and ghosts */
+    public Player player = new Player(PLAYER_START_X, PLAYER_START_Y);
+    public Ghost[] ghosts = new Ghost[GHOST_START_X.length];
+
+    /* This frame counter is used to kill the game over and victory screens after a set idle period */
+    int screenFrames = -1;
+
+    /* Dying is used to count frames in the dying animation.  If it's non-zero,
+     pacman is in the process of dying */
+    int dying = 0;
+
+    /* Score information */
+    public int currScore;
+
+    int numLives = 2;
+
+    /* Contains the state of all pellets, one bit per cell as laid out by Maze.
+     Null until the first game is started */
+    public long[] pellets;
+
+    /* State flags*/
+    public boolean stopped;
+    public boolean titleScreen;
+    public boolean winScreen = false;
+    public boolean overScreen = false;
+    int New;
+
+    /* Cells the player has been on in this game, one bit per cell as laid out by Maze */
+    long[] visited = new long[Maze.WORDS];
+
+    /* True if the player is on a cell it had not been on before the last step */
+    boolean newCell;
+
+    /* Events of the last frame, read by the renderer to play sound effects */
+    boolean ate;
+    boolean died;
+    boolean started;
+
+    /* Creates a game with an unpredictable random seed */
+    public Game() {
+        this(new SplittableRandom().nextLong());
+    }
+
+    /* Creates a game that always plays out the same way for the same seed and player input */
+    public Game(long seed) {
+        this(seed, null);
+    }
+
+    /* Creates a game that replays the ghost paths of its seed from a trajectory instead of
+     computing them, the game plays out exactly as one made with Game(seed) */
+    public Game(long seed, GhostTrajectory trajectory) {
+        if (trajectory != null && trajectory.seed != seed) {
+            throw new IllegalArgumentException("trajectory of seed " + trajectory.seed + " used for seed " + seed);
+        }
+        this.seed = seed;
+        this.trajectory = trajectory;
+        this.rand = new SplittableRandom(seed);
+        for (int i = 0; i < ghosts.length; i++) {
+            ghosts[i] = new Ghost(GHOST_START_X[i], GHOST_START_Y[i], rand);
+        }
+        currScore = 0;
+        stopped = false;
+        titleScreen = false;
+        New = 1;
+    }
+
+    /* Reset occurs on a new game*/
+    public void reset() {
+        numLives = 2;
+        Arrays.fill(visited, 0);
+        if (pellets == null) {
+            pellets = new long[Maze.WORDS];
+        }
+        Maze.resetPellets(pellets);
+    }
+
+    /* Sets the direction the player will try to turn in and advances the game one frame */
+    public void step(char direction) {
+        player.desiredDirection = direction;
+        step();
+    }
+
+    /* Advances the game one frame: moves all pieces, then resolves collisions and pellets */
+    public void step() {
+        ate = false;
+        died = false;
+        started = false;
+        moveFrame();
+        updateFrame();
+        visit();
+    }
+
+    /* Records the cell the player is on as visited */
+    void visit() {
+        int cell = Maze.index(player.pelletX, player.pelletY);
+        newCell = !Maze.get(visited, cell);
+        if (newCell) {
+            Maze.set(visited, cell);
+        }
+    }
+
+    /* Moves the pieces, or handles the special screens and the reset after a death */
+    void moveFrame() {
+        /* If we aren't on a special screen than the counter can be set to -1 to disable it */
+        if (!titleScreen && !winScreen && !overScreen) {
+            screenFrames = -1;
+        }
+
+        /* If we are playing the dying animation, updateFrame keeps advancing it */
+        if (dying > 0) {
+            return;
+        }
+
+        boolean newGame = New != 0;
+
+        /* Leave the title screen right away, the next update starts a new game */
+        if (titleScreen) {
+            titleScreen = false;
+            return;
+        } /* If this is the win screen or game over screen, make sure to only stay on the screen for SCREEN_FRAMES frames. */ else if (winScreen || overScreen) {
+            screenFrames++;
+            if (screenFrames >= SCREEN_FRAMES) {
+                winScreen = false;
+                overScreen = false;
+                titleScreen = true;
+                screenFrames = -1;
+            }
+            return;
+        }
+
+        /* If we have a normal game state, move all pieces and update pellet status */
+        if (!newGame) {
+            player.move();
+
+            /* Also move the ghosts, and update the pellet states */
+            moveGhosts();
+            player.updatePellet();
+            for (Ghost ghost : ghosts) {
+                ghost.updatePellet();
+            }
+        }
+
+        /* We either have a new game or the user has died, either way we have to reset the board */
+        if (stopped || newGame) {
+            resetPositions();
+            stopped = false;
+        }
+    }
+
+    /* Moves the ghosts one frame, or places them where the trajectory has them.  The replay
+     ends after a death, from then on the ghosts' moves depend on the player */
+    void moveGhosts() {
+        if (trajectory != null && stopped) {
+            endReplay();
+        }
+        if (trajectory != null) {
+            trajectory.place(ghosts, ghostFrames);
+            ghostFrames++;
+        } else {
+            for (Ghost ghost : ghosts) {
+                ghost.move();
+            }
+        }
+    }
+
+    /* Stops replaying the trajectory.  The ghosts are already where they would be, only the random
+     generator has to be brought to the state it would be in had they moved themselves */
+    void endReplay() {
+        rand = new SplittableRandom(seed);
+        Ghost[] shadows = newGhosts(rand);
+        for (int frame = 0; frame < ghostFrames; frame++) {
+            for (Ghost shadow : shadows) {
+                shadow.move();
+            }
+        }
+        for (Ghost ghost : ghosts) {
+            ghost.rand = rand;
+        }
+        trajectory = null;
+    }
+
+    /* Creates the ghosts of a new game at their starting locations */
+    static Ghost[] newGhosts(SplittableRandom rand) {
+        Ghost[] ghosts = new Ghost[GHOST_START_X.length];
+        for (int i = 0; i < ghosts.length; i++) {
+            ghosts[i] = new Ghost(GHOST_START_X[i], GHOST_START_Y[i], rand);
+            ghosts[i].updateState(Maze.GHOST_MOVES);
+        }
+        return ghosts;
+    }
+
+    /* Advances the game at least one frame and at most maxFrames frames with the player trying to
+     turn in the given direction, and returns the number of frames advanced.  Frames in which
+     nothing but straight movement between grid centers happens are computed in one go, the
+     result is the same as calling step(direction) that many times */
+    public int advance(char direction, int maxFrames) {
+        player.desiredDirection = direction;
+        int frames = Math.min(quietFrames(), maxFrames);
+        if (frames == 0) {
+            step();
+            return 1;
+        }
+
+        ate = false;
+        died = false;
+        started = false;
+        int d = Maze.direction(player.currDirection);
+        player.lastX = player.x + Maze.STEP_X[d] * (frames - 1);
+        player.lastY = player.y + Maze.STEP_Y[d] * (frames - 1);
+        player.x += Maze.STEP_X[d] * frames;
+        player.y += Maze.STEP_Y[d] * frames;
+        player.frameCount += frames;
+        player.stopped = false;
+        for (Ghost ghost : ghosts) {
+            ghost.lastX = ghost.x + Maze.STEP_X[ghost.direction] * (frames - 1);
+            ghost.lastY = ghost.y + Maze.STEP_Y[ghost.direction] * (frames - 1);
+            ghost.x += Maze.STEP_X[ghost.direction] * frames;
+            ghost.y += Maze.STEP_Y[ghost.direction] * frames;
+        }
+        ghostFrames += frames;
+        visit();
+        return frames;
+    }
+
+    /* Returns how many of the following frames are quiet: every piece is between two grid centers
+     and just slides on.  No piece reaches a grid center, so there are no random choices, no pellet
+     changes and no pellets eaten, and the frames end before any collision.  Returns 0 outside of
+     normal play and when the player is about to turn around */
+    int quietFrames() {
+        if (New != 0 || dying > 0 || stopped || titleScreen || winScreen || overScreen) {
+            return 0;
+        }
+        int d = Maze.direction(player.currDirection);
+        if ((player.movesAt(player.x, player.y) & Maze.CENTRE) != 0
+                || Maze.direction(player.desiredDirection) == Maze.reverse(d)
+                || Maze.get(pellets, player.pelletX, player.pelletY)) {
+            return 0;
+        }
+
+        /* The frame a piece arrives at a grid center is not quiet */
+        int frames = Maze.framesToCentre(player.x, player.y, d) - 1;
+        for (Ghost ghost : ghosts) {
+            if ((ghost.movesAt(ghost.x, ghost.y) & Maze.CENTRE) != 0) {
+                return 0;
+            }
+            frames = Math.min(frames, Maze.framesToCentre(ghost.x, ghost.y, ghost.direction) - 1);
+        }
+
+        /* Stop before the first frame with a collision */
+        for (int t = 1; t <= frames; t++) {
+            int px = player.x + Maze.STEP_X[d] * t;
+            int py = player.y + Maze.STEP_Y[d] * t;
+            for (Ghost ghost : ghosts) {
+                int gx = ghost.x + Maze.STEP_X[ghost.direction] * t;
+                int gy = ghost.y + Maze.STEP_Y[ghost.direction] * t;
+                if ((px == gx && Math.abs(py - gy) < 10) || (py == gy && Math.abs(px - gx) < 10)) {
+                    return t - 1;
+                }
+            }
+        }
+        return frames;
+    }
+
+    /* Move all game elements back to starting positions and orientations */
+    void resetPositions() {
+        player.currDirection = 'L';
+        player.direction = 'L';
+        player.desiredDirection = 'L';
+        player.x = PLAYER_START_X;
+        player.y = PLAYER_START_Y;
+        for (int i = 0; i < ghosts.length; i++) {
+            ghosts[i].x = GHOST_START_X[i];
+            ghosts[i].y = GHOST_START_Y[i];
+        }
+    }
+
+    /* Resolves one frame: the dying animation, new game frames, collisions and eating pellets */
+    void updateFrame() {
+        /* If we're playing the dying animation, just kill the pacman.  Each frame of death takes one
+         step, a renderer that wants to show it holds the frames itself */
+        if (dying > 0) {
+            dying--;
+            /* If this was the last death frame and no lives are left, it's game over */
+            if (dying == 0 && numLives == -1) {
+                overScreen = true;
+            }
+            return;
+        }
+
+        /* Special screens start a new game once they are left */
+        if (titleScreen || winScreen || overScreen) {
+            New = 1;
+            return;
+        }
+
+        /* oops is set to true when pacman has lost a life */
+        boolean oops = false;
+
+        /* Game initialization */
+        if (New == 1) {
+            /* Only the first game can be replayed, later ones start from where the random generator is */
+            if (trajectory != null && pellets != null) {
+                endReplay();
+            }
+            reset();
+            player = new Player(PLAYER_START_X, PLAYER_START_Y);
+            ghosts = newGhosts(rand);
+            currScore = 0;
+
+            /* Send the move table to the player, the player's table closes the ghost box */
+            player.updateState(Maze.PLAYER_MOVES);
+            New++;
+        } /* Second frame of new game */ else if (New == 2) {
+            New++;
+        } /* Third frame of new game */ else if (New == 3) {
+            New++;
+            started = true;
+            return;
+        } /* Fourth frame of new game, a renderer holds this one until the new game sound is over */ else if (New == 4) {
+            New = 0;
+            return;
+        }
+
+        /* Detect collisions */
+        for (Ghost ghost : ghosts) {
+            if ((player.x == ghost.x && Math.abs(player.y - ghost.y) < 10)
+                    || (player.y == ghost.y && Math.abs(player.x - ghost.x) < 10)) {
+                oops = true;
+                break;
+            }
+        }
+
+        /* Kill the pacman */
+        if (oops && !stopped) {
+            /* 4 frames of death*/
+            dying = 4;
+            died = true;
+
+            /*Decrement lives and set appropriate flags */
+            numLives--;
+            stopped = true;
+        }
+
+        /* Eat pellets */
+        if (Maze.get(pellets, player.pelletX, player.pelletY) && New != 2 && New != 3) {
+            ate = true;
+
+            /* Increment pellets eaten value to track for end game */
+            player.pelletsEaten++;
+
+            /* Delete the pellet*/
+            Maze.clear(pellets, player.pelletX, player.pelletY);
+
+            /* Increment the score */
+            currScore += PELLET_SCORE;
+
+            /* If this was the last pellet */
+            if (player.pelletsEaten == NUM_PELLETS) {
+                winScreen = true;
+            }
+        }
+    }
+
+    /* Returns true if the direction given to the next step can change the game.  It can't while
+     a new game is starting, during the dying animation, on special screens and right after a death,
+     or when the player is at the center of a grid where the only legal move is to go on.  Between
+     two grid centers the player can always turn around */
+    public boolean isDecisionPoint() {
+        if (New != 0 || dying > 0 || stopped || titleScreen || winScreen || overScreen) {
+            return false;
+        }
+        int moves = player.movesAt(player.x, player.y);
+        if ((moves & Maze.CENTRE) == 0) {
+            return true;
+        }
+        return (moves & 15 & ~(1 << Maze.direction(player.currDirection))) != 0;
+    }
+
+    /* Returns true if the last step or advance brought the player to a cell it had not visited */
+    public boolean isNewCell() {
+        return newCell;
+    }
+
+    /* Returns the cells the player has visited in this game, one bit per cell as laid out by Maze.
+     This is the game's own set, it must not be written and changes with every step */
+    public long[] getVisited() {
+        return visited;
+    }
+
+    /* Returns the number of cells the player has visited in this game */
+    public int getVisitedCount() {
+        return Maze.count(visited);
+    }
+
+    /* Returns the number of pellets still on the board */
+    public int getPelletsOnBoard() {
+        return pellets == null ? Maze.count(Maze.PELLETS) : Maze.count(pellets);
+    }
+
+    /* Returns the number of pellets that still have to be eaten to win the game */
+    public int getPelletsLeft() {
+        return NUM_PELLETS - player.pelletsEaten;
+    }
+
+    /* Returns true while the new game sound is playing */
+    public boolean isStarting() {
+        return New == 4;
+    }
+
+    /* Returns true while the dying animation is playing */
+    public boolean isDying() {
+        return dying > 0;
+    }
+
+    /* Returns the number of lives left */
+    public int getLives() {
+        return numLives;
+    }
+}
@@ -0,0 +1,291 @@
+package dk.itu.gaer;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+
+/* Many independent games stepped together, for running the trials of a fitness evaluation in
+   lockstep.  The state of all games is kept in parallel arrays indexed by lane, the ghosts of lane l
+   at l * 4 to l * 4 + 3, so one step is a sweep over primitive arrays instead of a walk over
+   Player and Ghost objects.  Only the first life is played: a lane is over when the player dies or
+   clears the board, which is where a trial of the fitness function ends.  Until then every lane
+   plays exactly as a Game made with the same seed and given the same directions. */
+public final class GameBatch {
+
+    /* Number of ghosts in every game */
+    static final int GHOSTS = Game.GHOST_START_X.length;
+
+    private final int lanes;
+
+    /* Random generator of each lane, the ghosts' choices come from it as in Game */
+    private final SplittableRandom[] rand;
+
+    /* Frame of the new game sequence each lane is in, as Game.New: 1 before the first step, 0 once
+     the game is running */
+    private final int[] phase;
+
+    /* Lanes that are still stepped, and lanes whose game is over */
+    private final boolean[] active;
+    private final boolean[] over;
+    private int activeCount;
+
+    /* Player position, direction index and the cell it is on */
+    private final int[] playerX;
+    private final int[] playerY;
+    private final int[] playerDirection;
+    private final int[] playerCellX;
+    private final int[] playerCellY;
+
+    /* Ghost positions, direction indexes and the cells they are on */
+    private final int[] ghostX;
+    private final int[] ghostY;
+    private final int[] ghostDirection;
+    private final int[] ghostCellX;
+    private final int[] ghostCellY;
+
+    private final int[] pelletsEaten;
+    private final int[] score;
+
+    /* Pellets and visited cells of each lane, laid out by Maze */
+    private final long[][] pellets;
+    private final long[][] visited;
+
+    private final boolean[] newCell;
+
+    /* Creates one lane for each seed, each a game that has not been stepped yet */
+    public GameBatch(long[] seeds) {
+        lanes = seeds.length;
+        rand = new SplittableRandom[lanes];
+        phase = new int[lanes];
+        active = new boolean[lanes];
+        over = new boolean[lanes];
+        playerX = new int[lanes];
+        playerY = new int[lanes];
+        playerDirection = new int[lanes];
+        playerCellX = new int[lanes];
+        playerCellY = new int[lanes];
+        ghostX = new int[lanes * GHOSTS];
+        ghostY = new int[lanes * GHOSTS];
+        ghostDirection = new int[lanes * GHOSTS];
+        ghostCellX = new int[lanes * GHOSTS];
+        ghostCellY = new int[lanes * GHOSTS];
+        pelletsEaten = new int[lanes];
+        score = new int[lanes];
+        pellets = new long[lanes][Maze.WORDS];
+        visited = new long[lanes][Maze.WORDS];
+        newCell = new boolean[lanes];
+        for (int l = 0; l < lanes; l++) {
+            rand[l] = new SplittableRandom(seeds[l]);
+            phase[l] = 1;
+            active[l] = true;
+            startPieces(l);
+        }
+        activeCount = lanes;
+    }
+
+    /* Places the pieces of a lane as a new Player and newly made ghosts are.  A new ghost takes
+     its cell row from its x coordinate, as Ghost does, until it first moves */
+    private void startPieces(int l) {
+        playerX[l] = Game.PLAYER_START_X;
+        playerY[l] = Game.PLAYER_START_Y;
+        playerDirection[l] = Maze.direction('L');
+        playerCellX[l] = Game.PLAYER_START_X / Maze.SIZE - 1;
+        playerCellY[l] = Game.PLAYER_START_Y / Maze.SIZE - 1;
+        for (int i = 0; i < GHOSTS; i++) {
+            int g = l * GHOSTS + i;
+            ghostX[g] = Game.GHOST_START_X[i];
+            ghostY[g] = Game.GHOST_START_Y[i];
+            ghostDirection[g] = Maze.direction('L');
+            ghostCellX[g] = Game.GHOST_START_X[i] / Maze.SIZE - 1;
+            ghostCellY[g] = Game.GHOST_START_X[i] / Maze.SIZE - 1;
+        }
+    }
+
+    /* Advances every active lane whose game is not over one frame, lane l with the player trying
+     to turn in directions[l], as Game.step(direction) */
+    public void step(char[] directions) {
+        for (int l = 0; l < lanes; l++) {
+            if (!active[l] || over[l]) {
+                continue;
+            }
+            if (phase[l] != 0) {
+                startFrame(l);
+            } else {
+                playFrame(l, Maze.direction(directions[l]));
+            }
+            visit(l);
+        }
+    }
+
+    /* One of the four frames that start a game.  The pieces stay at their starting locations,
+     where nobody collides and no pellet is eaten */
+    private void startFrame(int l) {
+        if (phase[l] == 1) {
+            Maze.resetPellets(pellets[l]);
+            Arrays.fill(visited[l], 0);
+            startPieces(l);
+            pelletsEaten[l] = 0;
+            score[l] = 0;
+        }
+        phase[l] = (phase[l] + 1) % 5;
+    }
+
+    /* One frame of a running game: moves the player and the ghosts, then resolves collisions and
+     pellets, as Game.moveFrame and Game.updateFrame */
+    private void playFrame(int l, int desired) {
+        movePlayer(l, desired);
+        for (int g = l * GHOSTS; g < (l + 1) * GHOSTS; g++) {
+            moveGhost(l, g);
+        }
+        if (playerX[l] % Maze.SIZE == 0 && playerY[l] % Maze.SIZE == 0) {
+            playerCellX[l] = playerX[l] / Maze.SIZE - 1;
+            playerCellY[l] = playerY[l] / Maze.SIZE - 1;
+        }
+        for (int g = l * GHOSTS; g < (l + 1) * GHOSTS; g++) {
+            ghostCellX[g] = ghostX[g] / Maze.SIZE - 1;
+            ghostCellY[g] = ghostY[g] / Maze.SIZE - 1;
+        }
+
+        /* A collision ends the game, but a pellet under the player is still eaten */
+        int px = playerX[l];
+        int py = playerY[l];
+        for (int g = l * GHOSTS; g < (l + 1) * GHOSTS; g++) {
+            if ((px == ghostX[g] && Math.abs(py - ghostY[g]) < 10) || (py == ghostY[g] && Math.abs(px - ghostX[g]) < 10)) {
+                over[l] = true;
+                break;
+            }
+        }
+        int cell = Maze.index(playerCellX[l], playerCellY[l]);
+        if (Maze.get(pellets[l], cell)) {
+            pellets[l][cell >>> 6] &= ~(1L << cell);
+            score[l] += Game.PELLET_SCORE;
+            if (++pelletsEaten[l] == Game.NUM_PELLETS) {
+                over[l] = true;
+            }
+        }
+    }
+
+    /* Moves the player one frame, as Player.move */
+    private void movePlayer(int l, int desired) {
+        int x = playerX[l];
+        int y = playerY[l];
+        int current = playerDirection[l];
+        int moves = Maze.PLAYER_MOVES[Maze.position(x, y)];
+
+        /* Turn only at a grid center or to reverse, otherwise keep going */
+        if (((moves & Maze.CENTRE) != 0 || desired == Maze.reverse(current)) && (moves >> desired & 1) != 0) {
+            playerX[l] = x + Maze.STEP_X[desired];
+            playerY[l] = y + Maze.STEP_Y[desired];
+            playerDirection[l] = desired;
+        } else if ((moves >> current & 1) != 0) {
+            playerX[l] = x + Maze.STEP_X[current];
+            playerY[l] = y + Maze.STEP_Y[current];
+        } else if (current == Maze.direction('L') && y == 9 * Maze.SIZE && x < 2 * Maze.SIZE) {
+            playerX[l] = 400 - Maze.SIZE;
+        } else if (current == Maze.direction('R') && y == 9 * Maze.SIZE && x > 400 - Maze.SIZE * 2) {
+            playerX[l] = Maze.SIZE;
+        }
+    }
+
+    /* Moves a ghost one frame, as Ghost.move */
+    private void moveGhost(int l, int g) {
+        int moves = Maze.GHOST_MOVES[Maze.position(ghostX[g], ghostY[g])];
+        int direction = ghostDirection[g];
+        if ((moves & Maze.CENTRE) != 0) {
+            int[] exits = Maze.TURNS[(moves & 15) << 2 | direction];
+            if (exits.length == 0) {
+                direction = Maze.reverse(direction);
+            } else if (exits.length == 1) {
+                direction = exits[0];
+            } else {
+                direction = exits[rand[l].nextInt(exits.length)];
+            }
+            ghostDirection[g] = direction;
+        }
+        if ((moves >> direction & 1) != 0) {
+            ghostX[g] += Maze.STEP_X[direction];
+            ghostY[g] += Maze.STEP_Y[direction];
+        }
+    }
+
+    /* Records the cell the player is on as visited, as Game.visit */
+    private void visit(int l) {
+        int cell = Maze.index(playerCellX[l], playerCellY[l]);
+        newCell[l] = !Maze.get(visited[l], cell);
+        if (newCell[l]) {
+            Maze.set(visited[l], cell);
+        }
+    }
+
+    /* Returns the number of lanes */
+    public int getLanes() {
+        return lanes;
+    }
+
+    /* Stops stepping a lane, e.g. when its trial has run out of time */
+    public void stop(int l) {
+        if (active[l]) {
+            active[l] = false;
+            activeCount--;
+        }
+    }
+
+    /* Returns true if a lane is still stepped */
+    public boolean isActive(int l) {
+        return active[l];
+    }
+
+    /* Returns the number of lanes still stepped */
+    public int getActiveCount() {
+        return activeCount;
+    }
+
+    /* Returns true if the player of a lane died or cleared the board */
+    public boolean isOver(int l) {
+        return over[l];
+    }
+
+    /* Returns the score of a lane */
+    public int getScore(int l) {
+        return score[l];
+    }
+
+    /* Returns true if the last step brought the player of a lane to a cell it had not visited */
+    public boolean isNewCell(int l) {
+        return newCell[l];
+    }
+
+    /* Returns the number of cells the player of a lane has visited */
+    public int getVisitedCount(int l) {
+        return Maze.count(visited[l]);
+    }
+
+    /* Returns the pellets of a lane, laid out by Maze, or null before its first step.  This is the
+     lane's own board, it must not be written */
+    public long[] getPellets(int l) {
+        return phase[l] == 1 ? null : pellets[l];
+    }
+
+    /* Returns the cell the player of a lane is on */
+    public int getPlayerCellX(int l) {
+        return playerCellX[l];
+    }
+
+    public int getPlayerCellY(int l) {
+        return playerCellY[l];
+    }
+
+    /* Returns the 3x3 neighbourhood of the player of a lane as a bit mask with the bits of cells
+     that hold a ghost set, laid out as Maze.window */
+    public int getGhostWindow(int l) {
+        int result = 0;
+        for (int g = l * GHOSTS; g < (l + 1) * GHOSTS; g++) {
+            int dx = ghostCellX[g] - playerCellX[l];
+            int dy = ghostCellY[g] - playerCellY[l];
+            if (dx >= -1 && dx <= 1 && dy >= -1 && dy <= 1) {
+                result |= 1 << ((dx + 1) * 3 + dy + 1);
+            }
+        }
+        return result;
+    }
+}
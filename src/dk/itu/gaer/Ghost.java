@@ -1,16 +1,13 @@
 package dk.itu.gaer;
 
-
-import java.util.HashSet;
-import java.util.Set;
-
+import java.util.SplittableRandom;
 
 
 /* Ghost class controls the ghost. */
 public class Ghost extends Mover {
 
-    /* Direction ghost is heading */
-    char direction;
+    /* Direction ghost is heading, an index into Maze.DIRECTIONS */
+    int direction;
 
     /* Last ghost location*/
     int lastX;
@@ -26,9 +23,13 @@ public class Ghost extends Mover {
     /* The pellet the ghost was last on top of */
     int lastPelletX, lastPelletY;
 
+    /* Random generator of the game, used to choose directions */
+    SplittableRandom rand;
+
     /*Constructor places ghost and updates states*/
-    public Ghost(int x, int y) {
-        direction = 'L';
+    public Ghost(int x, int y, SplittableRandom rand) {
+        this.rand = rand;
+        direction = Maze.direction('L');
         pelletX = x / gridSize - 1;
         pelletY = x / gridSize - 1;
         lastPelletX = pelletX;
@@ -55,72 +56,19 @@ public class Ghost extends Mover {
 
     /* Determines if the location is one where the ghost has to make a decision*/
     public boolean isChoiceDest() {
-        if (x % gridSize == 0 && y % gridSize == 0) {
-            return true;
-        }
-        return false;
+        return (movesAt(x, y) & Maze.CENTRE) != 0;
     }
 
-    /* Chooses a new direction randomly for the ghost to move */
-    public char newDirection() {
-        int random;
-        char backwards = 'U';
-        int newX = x, newY = y;
-        int lookX = x, lookY = y;
-        Set<Character> set = new HashSet<Character>();
-        switch (direction) {
-            case 'L':
-                backwards = 'R';
-                break;
-            case 'R':
-                backwards = 'L';
-                break;
-            case 'U':
-                backwards = 'D';
-                break;
-            case 'D':
-                backwards = 'U';
-                break;
-        }
-
-        char newDirection = backwards;
-        /* While we still haven't found a valid direction */
-        while (newDirection == backwards || !isValidDest(lookX, lookY)) {
-            /* If we've tried every location, turn around and break the loop */
-            if (set.size() == 3) {
-                newDirection = backwards;
-                break;
-            }
-
-            newX = x;
-            newY = y;
-            lookX = x;
-            lookY = y;
-
-            /* Randomly choose a direction */
-            random = (int) (Math.random() * 4) + 1;
-            if (random == 1) {
-                newDirection = 'L';
-                newX -= increment;
-                lookX -= increment;
-            } else if (random == 2) {
-                newDirection = 'R';
-                newX += increment;
-                lookX += gridSize;
-            } else if (random == 3) {
-                newDirection = 'U';
-                newY -= increment;
-                lookY -= increment;
-            } else if (random == 4) {
-                newDirection = 'D';
-                newY += increment;
-                lookY += gridSize;
-            }
-            if (newDirection != backwards) {
-                set.add(new Character(newDirection));
-            }
+    /* Chooses a new direction randomly for the ghost to move, given the legal moves at its location.
+     Any legal exit but turning around is equally likely, if there is none the ghost turns around */
+    int newDirection(int moves) {
+        int[] exits = Maze.TURNS[(moves & 15) << 2 | direction];
+        if (exits.length == 0) {
+            return Maze.reverse(direction);
+        } else if (exits.length == 1) {
+            return exits[0];
         }
-        return newDirection;
+        return exits[rand.nextInt(exits.length)];
     }
 
     /* Random move function for ghost */
@@ -129,32 +77,15 @@ public class Ghost extends Mover {
         lastY = y;
 
         /* If we can make a decision, pick a new direction randomly */
-        if (isChoiceDest()) {
-            direction = newDirection();
+        int moves = movesAt(x, y);
+        if ((moves & Maze.CENTRE) != 0) {
+            direction = newDirection(moves);
         }
 
         /* If that direction is valid, move that way */
-        switch (direction) {
-            case 'L':
-                if (isValidDest(x - increment, y)) {
-                    x -= increment;
-                }
-                break;
-            case 'R':
-                if (isValidDest(x + gridSize, y)) {
-                    x += increment;
-                }
-                break;
-            case 'U':
-                if (isValidDest(x, y - increment)) {
-                    y -= increment;
-                }
-                break;
-            case 'D':
-                if (isValidDest(x, y + gridSize)) {
-                    y += increment;
-                }
-                break;
+        if ((moves >> direction & 1) != 0) {
+            x += Maze.STEP_X[direction];
+            y += Maze.STEP_Y[direction];
         }
     }
-}
\ No newline at end of file
+}
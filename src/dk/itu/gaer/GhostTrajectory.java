@@ -0,0 +1,74 @@
+package dk.itu.gaer;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+
+/* The paths of the ghosts in the first life of a game with a given seed.  Ghosts never look at the
+   player, so until the player dies or the game restarts they move the same way in every game with
+   the same seed.  A trajectory is recorded once and can then be replayed by any number of games on
+   any number of threads.  Frames are recorded in chunks as the games get to them, so games that end
+   early cost nothing beyond the frames they used; recorded chunks are never written again. */
+public final class GhostTrajectory {
+
+    /* Number of frames recorded at a time */
+    private static final int CHUNK_BITS = 10;
+    private static final int CHUNK_FRAMES = 1 << CHUNK_BITS;
+
+    /* Seed of the games this trajectory belongs to */
+    final long seed;
+
+    /* Ghosts moving on their own with the game's random generator, used to record more frames */
+    private final Ghost[] recorder;
+
+    /* Recorded chunks.  Entry 3 * (f * number of ghosts + i) and the two after it hold the x and y
+     position in steps of 4 pixels and the direction of ghost i after frame f of the chunk */
+    private volatile byte[][] chunks = new byte[0][];
+
+    /* Creates the trajectory of the games seeded with seed */
+    public GhostTrajectory(long seed) {
+        this.seed = seed;
+        this.recorder = Game.newGhosts(new SplittableRandom(seed));
+    }
+
+    /* Moves the ghosts of a game to where they are after the given frame of the first life,
+     the same as calling move() on each of them */
+    void place(Ghost[] ghosts, int frame) {
+        byte[][] recorded = chunks;
+        int c = frame >>> CHUNK_BITS;
+        if (c >= recorded.length) {
+            recorded = record(c);
+        }
+        byte[] chunk = recorded[c];
+        int k = 3 * (frame & (CHUNK_FRAMES - 1)) * ghosts.length;
+        for (Ghost ghost : ghosts) {
+            ghost.lastX = ghost.x;
+            ghost.lastY = ghost.y;
+            ghost.x = chunk[k] << 2;
+            ghost.y = chunk[k + 1] << 2;
+            ghost.direction = chunk[k + 2];
+            k += 3;
+        }
+    }
+
+    /* Records chunks up to and including chunk c and returns all recorded chunks */
+    private synchronized byte[][] record(int c) {
+        byte[][] recorded = chunks;
+        while (recorded.length <= c) {
+            byte[] chunk = new byte[3 * CHUNK_FRAMES * recorder.length];
+            int k = 0;
+            for (int frame = 0; frame < CHUNK_FRAMES; frame++) {
+                for (Ghost ghost : recorder) {
+                    ghost.move();
+                    chunk[k++] = (byte) (ghost.x >> 2);
+                    chunk[k++] = (byte) (ghost.y >> 2);
+                    chunk[k++] = (byte) ghost.direction;
+                }
+            }
+            recorded = Arrays.copyOf(recorded, recorded.length + 1);
+            recorded[recorded.length - 1] = chunk;
+        }
+        chunks = recorded;
+        return recorded;
+    }
+}
@@ -0,0 +1,258 @@
+package dk.itu.gaer;
+
+
+/* The maze compiled into bitboards and move tables.  Each of the 20x20 cells is one bit, cell
+   (x, y) is bit x * 20 + y, so the 400 cells fit in seven longs.  Move tables hold the legal
+   moves of every pixel position a mover can be at.  Everything built here is shared by every
+   game and every mover and must never be written; a game copies the pellet template instead. */
+public final class Maze {
+
+    /* Width and height of the maze in cells */
+    public static final int SIZE = 20;
+
+    /* Number of cells and the number of longs needed to hold one bit per cell */
+    public static final int CELLS = SIZE * SIZE;
+    public static final int WORDS = (CELLS + 63) >>> 6;
+
+    /* Cells that ghosts can travel through */
+    static final long[] OPEN = new long[WORDS];
+
+    /* Cells that the player can travel through, the ghost box is closed to the player */
+    static final long[] PLAYER_OPEN = new long[WORDS];
+
+    /* Cells holding a pellet at the start of a game */
+    static final long[] PELLETS = new long[WORDS];
+
+    /* Directions in network output order, and the pixels a mover travels per frame in each */
+    public static final char[] DIRECTIONS = {'L', 'U', 'R', 'D'};
+    static final int[] STEP_X = {-4, 0, 4, 0};
+    static final int[] STEP_Y = {0, -4, 0, 4};
+
+    /* How far ahead a mover looks before stepping in each direction: one step left or up,
+     but a whole cell right or down */
+    private static final int[] LOOK_X = {-4, 0, 20, 0};
+    private static final int[] LOOK_Y = {0, -4, 0, 20};
+
+    /* Index of each direction character in DIRECTIONS */
+    private static final byte[] DIRECTION_INDEX = new byte[128];
+
+    /* Pixel positions are multiples of 4 from 0 to 400 on each axis */
+    static final int POSITIONS_PER_AXIS = 400 / 4 + 1;
+
+    /* Flags of a move table entry, the low 4 bits are the legal directions */
+    static final int CENTRE = 1 << 4;
+    static final int JUNCTION = 1 << 5;
+
+    /* Legal moves of ghosts and of the player for every pixel position */
+    static final byte[] GHOST_MOVES = new byte[POSITIONS_PER_AXIS * POSITIONS_PER_AXIS];
+    static final byte[] PLAYER_MOVES = new byte[POSITIONS_PER_AXIS * POSITIONS_PER_AXIS];
+
+    /* Move table of a mover that has not been given the game map yet */
+    static final byte[] NO_MOVES = new byte[POSITIONS_PER_AXIS * POSITIONS_PER_AXIS];
+
+    /* Legal exits other than reversing, indexed by (legal directions << 2 | current direction) */
+    static final int[][] TURNS = new int[16 * 4][];
+
+    /* Barriers of the map as x, y, width, height in pixels */
+    private static final int[][] BARRIERS = {
+        {120, 120, 60, 20}, {120, 80, 20, 100}, {280, 80, 20, 100}, {240, 120, 60, 20},
+        {280, 200, 20, 60}, {120, 200, 20, 60}, {160, 240, 100, 20}, {200, 260, 20, 40},
+        {120, 280, 60, 20}, {240, 280, 60, 20}, {40, 280, 60, 20}, {80, 280, 20, 60},
+        {320, 280, 60, 20}, {320, 280, 20, 60}, {20, 320, 40, 20}, {360, 320, 40, 20},
+        {160, 320, 100, 20}, {200, 320, 20, 60}, {40, 360, 140, 20}, {240, 360, 140, 20},
+        {280, 320, 20, 60}, {120, 320, 20, 60}, {320, 200, 80, 60}, {320, 80, 60, 20},
+        {200, 80, 20, 60}, {40, 40, 60, 20}, {120, 40, 60, 20}, {200, 20, 20, 40},
+        {240, 40, 60, 20}, {320, 40, 60, 20}, {40, 80, 60, 20}, {160, 80, 100, 20},
+        {20, 120, 80, 60}, {320, 120, 80, 60}, {20, 200, 80, 60}, {240, 180, 20, 20},
+        {160, 200, 100, 20}, {160, 180, 20, 20}, {220, 160, 40, 20}, {160, 160, 40, 20}
+    };
+
+    static {
+        for (int i = 0; i < CELLS; i++) {
+            set(OPEN, i);
+            set(PELLETS, i);
+        }
+
+        /* Handle the weird spots with no pellets*/
+        for (int i = 5; i < 14; i++) {
+            for (int j = 5; j < 12; j++) {
+                clear(PELLETS, i, j);
+            }
+        }
+        clear(PELLETS, 9, 7);
+        clear(PELLETS, 8, 8);
+        clear(PELLETS, 9, 8);
+        clear(PELLETS, 10, 8);
+
+        /* Barriers are invalid locations to travel or put pellets */
+        for (int[] barrier : BARRIERS) {
+            for (int i = barrier[0] / SIZE; i < (barrier[0] + barrier[2]) / SIZE; i++) {
+                for (int j = barrier[1] / SIZE; j < (barrier[1] + barrier[3]) / SIZE; j++) {
+                    clear(OPEN, i - 1, j - 1);
+                    clear(PELLETS, i - 1, j - 1);
+                }
+            }
+        }
+
+        /* Don't let the player go in the ghost box*/
+        System.arraycopy(OPEN, 0, PLAYER_OPEN, 0, WORDS);
+        clear(PLAYER_OPEN, 9, 7);
+
+        for (int d = 0; d < DIRECTIONS.length; d++) {
+            DIRECTION_INDEX[DIRECTIONS[d]] = (byte) d;
+        }
+        compileMoves(OPEN, GHOST_MOVES);
+        compileMoves(PLAYER_OPEN, PLAYER_MOVES);
+        for (int moves = 0; moves < 16; moves++) {
+            for (int d = 0; d < 4; d++) {
+                int[] exits = new int[Integer.bitCount(moves & ~(1 << reverse(d)))];
+                int n = 0;
+                for (int e = 0; e < 4; e++) {
+                    if (e != reverse(d) && (moves >> e & 1) != 0) {
+                        exits[n++] = e;
+                    }
+                }
+                TURNS[moves << 2 | d] = exits;
+            }
+        }
+    }
+
+    /* Fills a move table by testing every position and direction against the open cells */
+    private static void compileMoves(long[] open, byte[] moves) {
+        for (int x = 0; x <= 400; x += 4) {
+            for (int y = 0; y <= 400; y += 4) {
+                int entry = 0;
+                for (int d = 0; d < 4; d++) {
+                    if (isValidDest(open, x + LOOK_X[d], y + LOOK_Y[d])) {
+                        entry |= 1 << d;
+                    }
+                }
+                if (x % 20 == 0 && y % 20 == 0) {
+                    entry |= CENTRE;
+                    if (Integer.bitCount(entry & 15) > 2) {
+                        entry |= JUNCTION;
+                    }
+                }
+                moves[position(x, y)] = (byte) entry;
+            }
+        }
+    }
+
+    /* Determines if a set of coordinates is a valid destination.  The first statements check that
+     the x and y are inbounds.  The last statement checks the map to see if it's a valid location */
+    private static boolean isValidDest(long[] open, int x, int y) {
+        return ((x % 20 == 0) || (y % 20 == 0)) && 20 <= x && x < 400 && 20 <= y && y < 400
+                && get(open, x / 20 - 1, y / 20 - 1);
+    }
+
+    /* Returns the move table index of a pixel position */
+    static int position(int x, int y) {
+        return (x >> 2) * POSITIONS_PER_AXIS + (y >> 2);
+    }
+
+    /* Returns the index of a direction character */
+    static int direction(char c) {
+        return DIRECTION_INDEX[c];
+    }
+
+    /* Returns the opposite direction */
+    static int reverse(int d) {
+        return (d + 2) & 3;
+    }
+
+    /* Returns the number of frames a mover between two grid centers takes to reach the next
+     center while heading in direction d */
+    static int framesToCentre(int x, int y, int d) {
+        int offset = (d & 1) == 0 ? x % SIZE : y % SIZE;
+        return (d < 2 ? offset : SIZE - offset) / 4;
+    }
+
+    private Maze() {
+    }
+
+    /* Returns the bit index of a cell */
+    public static int index(int x, int y) {
+        return x * SIZE + y;
+    }
+
+    /* Returns true if the bit of cell index i is set */
+    public static boolean get(long[] board, int i) {
+        return (board[i >>> 6] & (1L << i)) != 0;
+    }
+
+    /* Returns true if the bit of cell (x, y) is set */
+    public static boolean get(long[] board, int x, int y) {
+        return get(board, index(x, y));
+    }
+
+    /* Sets the bit of cell index i */
+    static void set(long[] board, int i) {
+        board[i >>> 6] |= 1L << i;
+    }
+
+    /* Clears the bit of cell (x, y) */
+    static void clear(long[] board, int x, int y) {
+        int i = index(x, y);
+        board[i >>> 6] &= ~(1L << i);
+    }
+
+    /* Returns the number of set bits */
+    public static int count(long[] board) {
+        int count = 0;
+        for (long word : board) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    /* Copies the pellets of a new game into a board */
+    static void resetPellets(long[] pellets) {
+        System.arraycopy(PELLETS, 0, pellets, 0, WORDS);
+    }
+
+    /* Returns the 3x3 neighbourhood of cell (x, y) as 9 bits, bit (dx + 1) * 3 + (dy + 1)
+     holds cell (x + dx, y + dy).  Cells outside the maze read as 0 */
+    public static int window(long[] board, int x, int y) {
+        int result = 0;
+        for (int dx = -1; dx <= 1; dx++) {
+            int col = x + dx;
+            if (col >= 0 && col < SIZE) {
+                result |= bits3(board, index(col, y) - 1) << ((dx + 1) * 3);
+            }
+        }
+        return result & windowMask(x, y);
+    }
+
+    /* Returns the bits of window() that are inside the maze */
+    public static int windowMask(int x, int y) {
+        int column = 7;
+        if (y == 0) {
+            column &= ~1;
+        }
+        if (y == SIZE - 1) {
+            column &= ~4;
+        }
+        int result = column << 3;
+        if (x > 0) {
+            result |= column;
+        }
+        if (x < SIZE - 1) {
+            result |= column << 6;
+        }
+        return result;
+    }
+
+    /* Returns the three bits starting at index i, i may be -1 */
+    private static int bits3(long[] board, int i) {
+        if (i < 0) {
+            return (int) (board[0] << 1) & 7;
+        }
+        int word = i >>> 6;
+        int offset = i & 63;
+        long bits = board[word] >>> offset;
+        if (offset > 61 && word + 1 < WORDS) {
+            bits |= board[word + 1] << (64 - offset);
+        }
+        return (int) bits & 7;
+    }
+}
@@ -7,8 +7,9 @@ public class Mover {
     /* Framecount is used to count animation frames*/
     int frameCount = 0;
 
-    /* State contains the game map */
-    public boolean[][] state;
+    /* Moves contains the legal moves of every position on the game map, compiled by Maze.
+       It is shared with the Maze and never written */
+    byte[] moves;
 
     /* gridSize is the size of one square in the game.
      max is the height/width of the game.
@@ -23,30 +24,16 @@ public class Mover {
         gridSize = 20;
         increment = 4;
         max = 400;
-        state = new boolean[20][20];
-        for (int i = 0; i < 20; i++) {
-            for (int j = 0; j < 20; j++) {
-                state[i][j] = false;
-            }
-        }
+        moves = Maze.NO_MOVES;
     }
 
-    /* Updates the state information */
-    public void updateState(boolean[][] state) {
-        for (int i = 0; i < 20; i++) {
-            for (int j = 0; j < 20; j++) {
-                this.state[i][j] = state[i][j];
-            }
-        }
+    /* Updates the move table */
+    public void updateState(byte[] moves) {
+        this.moves = moves;
     }
 
-    /* Determines if a set of coordinates is a valid destination.*/
-    public boolean isValidDest(int x, int y) {
-        /* The first statements check that the x and y are inbounds.  The last statement checks the map to
-       see if it's a valid location */
-        if ((((x) % 20 == 0) || ((y) % 20) == 0) && 20 <= x && x < 400 && 20 <= y && y < 400 && state[x / 20 - 1][y / 20 - 1]) {
-            return true;
-        }
-        return false;
+    /* Returns the move table entry of a position */
+    int movesAt(int x, int y) {
+        return moves[Maze.position(x, y)];
     }
-}
\ No newline at end of file
+}
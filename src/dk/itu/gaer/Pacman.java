@@ -3,38 +3,45 @@ package dk.itu.gaer;
 /* Drew Schuster */
 import javax.swing.*;
 import java.awt.event.*;
-import java.awt.geom.Point2D;
 import javax.swing.JApplet;
 import java.awt.*;
-import java.util.*;
-import java.lang.*;
 
-/* This class contains the entire game... most of the game logic is in the Board class but this
-   creates the gui and captures mouse and keyboard input, as well as controls the game states */
+/* This class creates the gui for a Game and captures mouse and keyboard input.
+   All of the game logic is in the Game class, the Board class draws it */
 public class Pacman extends JApplet implements MouseListener, KeyListener {
 
-    /* These timers are used to kill title, game over, and victory screens after a set idle period (5 seconds)*/
-    long titleTimer = -1;
-    long timer = -1;
+    /* The game being played */
+    public Game game;
 
     /* Create a new board */
-    public Board b = new Board();
+    public Board b;
+
+    /* The window the board is shown in */
+    JFrame f;
 
     private boolean ai = false;
-    private boolean shown = false;
 
     /* This timer is used to do request new frames be drawn*/
     javax.swing.Timer frameTimer;
 
+    /* Wall-clock time the current dying frame or new game sound started showing, -1 if none is */
+    long holdTimer = -1;
+
 
-    /* This constructor creates the entire game essentially */
+    /* This constructor creates a new game and the window showing it */
     public Pacman(boolean ai, boolean shown) {
+        this(new Game(), ai, shown);
+    }
+
+    /* This constructor creates the window showing a game.  In ai mode the game is stepped by the caller */
+    public Pacman(Game game, boolean ai, boolean shown) {
+        this.game = game;
         this.ai = ai;
+        b = new Board(game);
         b.requestFocus();
-        //b.reset();
 
         /* Create and set up window frame*/
-        JFrame f = new JFrame();
+        f = new JFrame();
         f.setSize(420, 460);
 
         /* Add the board to the frame */
@@ -49,19 +56,13 @@ public class Pacman extends JApplet implements MouseListener, KeyListener {
             f.setVisible(true);
             f.setResizable(false);
         }
-        
-        /* Set the New flag to 1 because this is a new game */
-        b.New = 1;
 
-        /* Manually call the first frameStep to initialize the game. */
-        stepFrame(true);
-        
         if (!ai) {
 
             /* Create a timer that calls stepFrame every 30 milliseconds */
-            frameTimer = new javax.swing.Timer(30, new ActionListener() {
+            frameTimer = new javax.swing.Timer(Game.FRAME_MILLIS, new ActionListener() {
                 public void actionPerformed(ActionEvent e) {
-                    stepFrame(false);
+                    stepFrame();
                 }
             });
 
@@ -72,174 +73,81 @@ public class Pacman extends JApplet implements MouseListener, KeyListener {
         b.requestFocus();
     }
 
-    /* This repaint function repaints only the parts of the screen that may have changed.
-     Namely the area around every player ghost and the menu bars
-     */
-    public void repaint() {
-        if (b.player.teleport) {
-            b.repaint(b.player.lastX - 20, b.player.lastY - 20, 80, 80);
-            b.player.teleport = false;
+    /* Returns how long the current frame should stay on screen, 0 for a normal frame.
+     Take .1 seconds on each frame of death, 2 seconds for the final frame to allow for the
+     sound effect to end, and 5 seconds for the new game sound */
+    long holdMillis() {
+        if (game.dying > 1) {
+            return 100;
+        } else if (game.dying == 1) {
+            return 2000;
+        } else if (game.isStarting()) {
+            return 5000;
         }
-        b.repaint(0, 0, 600, 20);
-        b.repaint(0, 420, 600, 40);
-        b.repaint(b.player.x - 20, b.player.y - 20, 80, 80);
-        b.repaint(b.ghost1.x - 20, b.ghost1.y - 20, 80, 80);
-        b.repaint(b.ghost2.x - 20, b.ghost2.y - 20, 80, 80);
-        b.repaint(b.ghost3.x - 20, b.ghost3.y - 20, 80, 80);
-        b.repaint(b.ghost4.x - 20, b.ghost4.y - 20, 80, 80);
+        return 0;
     }
 
-    /* Steps the screen forward one frame */
-    public void stepFrame(boolean New) {
-        /* If we aren't on a special screen than the timers can be set to -1 to disable them */
-        if (!b.titleScreen && !b.winScreen && !b.overScreen) {
-            timer = -1;
-            titleTimer = -1;
-        }
-
-        /* If we are playing the dying animation, keep advancing frames until the animation is complete */
-        if (b.dying > 0) {
-            b.repaint();
-            return;
-        }
-
-        /* New can either be specified by the New parameter in stepFrame function call or by the state
-       of b.New.  Update New accordingly */
-        New = New || (b.New != 0);
-
-        /* If this is the title screen, make sure to only stay on the title screen for 5 seconds.
-       If after 5 seconds the user hasn't started a game, start up demo mode */
-        if (b.titleScreen) {
-            if (titleTimer == -1) {
-                titleTimer = System.currentTimeMillis();
-            }
-
+    /* Steps the game forward one frame and draws it.  The game itself counts frames,
+     the wall-clock pacing of the dying animation and new game sound is done here */
+    public void stepFrame() {
+        long hold = holdMillis();
+        if (hold > 0) {
             long currTime = System.currentTimeMillis();
-            if (currTime - titleTimer >= 5000) {
-                //b.titleScreen = false;
-                //b.demo = true;
-                //titleTimer = -1;
-            }
-            b.titleScreen = false;
-            titleTimer = -1;
-            b.repaint();
-            return;
-        } /* If this is the win screen or game over screen, make sure to only stay on the screen for 5 seconds.
-       If after 5 seconds the user hasn't pressed a key, go to title screen */ else if (b.winScreen || b.overScreen) {
-            if (timer == -1) {
-                timer = System.currentTimeMillis();
+            if (holdTimer == -1) {
+                holdTimer = currTime;
             }
-
-            long currTime = System.currentTimeMillis();
-            if (currTime - timer >= 5000) {
-                b.winScreen = false;
-                b.overScreen = false;
-                b.titleScreen = true;
-                timer = -1;
+            if (currTime - holdTimer < hold) {
+                b.repaint();
+                return;
             }
-            b.repaint();
-            return;
+            holdTimer = -1;
         }
+        game.step();
+        b.playSounds();
+        b.repaint();
+    }
 
-
-        /* If we have a normal game state, move all pieces and update pellet status */
-        if (!New) {
-            b.player.move();
-
-            /* Also move the ghosts, and update the pellet states */
-            b.ghost1.move();
-            b.ghost2.move();
-            b.ghost3.move();
-            b.ghost4.move();
-            b.player.updatePellet();
-            b.ghost1.updatePellet();
-            b.ghost2.updatePellet();
-            b.ghost3.updatePellet();
-            b.ghost4.updatePellet();
-        }
-
-        /* We either have a new game or the user has died, either way we have to reset the board */
-        if (b.stopped || New) {
-            /*Temporarily stop advancing frames */
-            if (!ai) {
-                frameTimer.stop();
-            }
-
-            /* If user is dying ... */
-            while (b.dying > 0) {
-                /* Play dying animation. */
-                stepFrame(false);
-            }
-
-            /* Move all game elements back to starting positions and orientations */
-            b.player.currDirection = 'L';
-            b.player.direction = 'L';
-            b.player.desiredDirection = 'L';
-            b.player.x = 200;
-            b.player.y = 300;
-            b.ghost1.x = 180;
-            b.ghost1.y = 180;
-            b.ghost2.x = 200;
-            b.ghost2.y = 180;
-            b.ghost3.x = 220;
-            b.ghost3.y = 180;
-            b.ghost4.x = 220;
-            b.ghost4.y = 180;
-
-            /* Advance a frame to display main state*/
-            b.repaint(0, 0, 600, 600);
-
-            /*Start advancing frames once again*/
-            b.stopped = false;
-            if (!ai) {
-                frameTimer.start();
-            }
-        } /* Otherwise we're in a normal state, advance one frame*/ else {
-            repaint();
+    /* Closes the window */
+    public void destroy() {
+        if (frameTimer != null) {
+            frameTimer.stop();
         }
+        f.dispose();
     }
 
     /* Handles user key presses*/
     public void keyPressed(KeyEvent e) {
         /* Pressing a key in the title screen starts a game */
-        if (b.titleScreen) {
-            b.titleScreen = false;
-            return;
-        } /* Pressing a key in the win screen or game over screen goes to the title screen */ else if (b.winScreen || b.overScreen) {
-            b.titleScreen = true;
-            b.winScreen = false;
-            b.overScreen = false;
+        if (game.titleScreen) {
+            game.titleScreen = false;
             return;
-        } /* Pressing a key during a demo kills the demo mode and starts a new game */ else if (b.demo) {
-            b.demo = false;
-            /* Stop any pacman eating sounds */
-            b.sounds.nomNomStop();
-            b.New = 1;
+        } /* Pressing a key in the win screen or game over screen goes to the title screen */ else if (game.winScreen || game.overScreen) {
+            game.titleScreen = true;
+            game.winScreen = false;
+            game.overScreen = false;
             return;
         }
 
         /* Otherwise, key presses control the player! */
         switch (e.getKeyCode()) {
             case KeyEvent.VK_LEFT:
-                b.player.desiredDirection = 'L';
+                game.player.desiredDirection = 'L';
                 break;
             case KeyEvent.VK_RIGHT:
-                b.player.desiredDirection = 'R';
+                game.player.desiredDirection = 'R';
                 break;
             case KeyEvent.VK_UP:
-                b.player.desiredDirection = 'U';
+                game.player.desiredDirection = 'U';
                 break;
             case KeyEvent.VK_DOWN:
-                b.player.desiredDirection = 'D';
+                game.player.desiredDirection = 'D';
                 break;
         }
-
-        repaint();
     }
 
     /* This function detects user clicks on the menu items on the bottom of the screen */
     public void mousePressed(MouseEvent e) {
-        if (b.titleScreen || b.winScreen || b.overScreen) {
+        if (game.titleScreen || game.winScreen || game.overScreen) {
             /* If we aren't in the game where a menu is showing, ignore clicks */
             return;
         }
@@ -250,7 +158,7 @@ public class Pacman extends JApplet implements MouseListener, KeyListener {
         if (400 <= y && y <= 460) {
             if (100 <= x && x <= 150) {
                 /* New game has been clicked */
-                b.New = 1;
+                game.New = 1;
             } else if (180 <= x && x <= 300) {
                 /* Clear high scores has been clicked */
                 b.clearHighScores();
@@ -19,21 +19,41 @@
  */
 package dk.itu.gaer;
 
+import java.util.Arrays;
 import java.util.Iterator;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
-import java.util.Random;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.log4j.Logger;
 import org.jgap.BulkFitnessFunction;
 import org.jgap.Chromosome;
+import org.jgap.Specie;
+import org.jgap.event.GeneticEvent;
+import org.jgap.event.GeneticEventListener;
 
 import com.anji.integration.Activator;
 import com.anji.integration.ActivatorTranscriber;
+import com.anji.integration.BatchActivator;
+import com.anji.integration.EvaluationScheduler;
+import com.anji.integration.FitnessMemo;
+import com.anji.integration.TranscriberException;
+import com.anji.integration.TrialScheduler;
+import com.anji.neat.NeatChromosomeUtility;
+import com.anji.neat.NeatConfiguration;
+import com.anji.neat.NeuronType;
 import com.anji.util.Configurable;
 import com.anji.util.Properties;
-import com.anji.util.Randomizer;
+import com.anji.util.WorkerPool;
 
-import java.util.HashSet;
 import java.util.logging.Level;
 
 /**
@@ -42,10 +62,27 @@ import java.util.logging.Level;
  *
  * @author Derek James
  */
-public class PacmanFitnessFunction implements BulkFitnessFunction, Configurable {
+public class PacmanFitnessFunction implements BulkFitnessFunction, Configurable, GeneticEventListener {
 
     private final static String TIMESTEPS_KEY = "pacman.timesteps";
     private final static String NUM_TRIALS_KEY = "pacman.trials";
+    private final static String DECISIONS_ONLY_KEY = "pacman.decisions.only";
+    private final static String MACRO_STEPS_KEY = "pacman.macro.steps";
+    private final static String GHOST_REPLAY_KEY = "pacman.ghost.replay";
+    private final static String PRUNE_KEY = "pacman.prune";
+    private final static String RACING_KEY = "pacman.racing";
+    private final static String RACING_KEEP_KEY = "pacman.racing.keep";
+    private final static String PRESCREEN_TIMESTEPS_KEY = "pacman.prescreen.timesteps";
+    private final static String PRESCREEN_PROMOTE_KEY = "pacman.prescreen.promote";
+    private final static String CONSTANT_POLICIES_KEY = "pacman.constant.policies";
+    private final static String ACCUMULATE_KEY = "pacman.accumulate";
+    private final static String ACCUMULATE_TRIALS_KEY = "pacman.accumulate.trials";
+    private final static String ACCUMULATE_CONFIDENCE_KEY = "pacman.accumulate.confidence";
+    private final static String LOCKSTEP_KEY = "pacman.lockstep";
+
+    /* Inputs the sensor can set, 3 for each cell of the 3x3 neighbourhood and the bias; the
+     inputs after them are always 0 */
+    private final static int SENSOR_INPUTS = 9 * 3 + 1;
 
     private final static int DEFAULT_TIMESTEPS = 10000;
     private int maxTimesteps = DEFAULT_TIMESTEPS;
@@ -53,11 +90,74 @@ public class PacmanFitnessFunction implements BulkFitnessFunction, Configurable
     private final static int DEFAULT_NUM_TRIALS = 10;
     private int numTrials = DEFAULT_NUM_TRIALS;
 
+    private boolean decisionsOnly = false;
+
+    private boolean macroSteps = false;
+
+    private boolean ghostReplay = false;
+
+    private boolean prune = false;
+
+    private float survivalRate;
+
+    private boolean elitism;
+
+    private int elitismMinSpecieSize;
+
+    private boolean racing = false;
+
+    private float racingKeep;
+
+    private int prescreenTimesteps = 0;
+
+    private float prescreenPromote;
+
+    private boolean constantPolicies = false;
+
+    private boolean accumulate = false;
+
+    private int accumulateTrials;
+
+    private double accumulateConfidence;
+
+    private boolean lockstep = false;
+
+    /* Scores of the games played by input independent networks this generation, keyed by seed,
+     number of steps and the policy */
+    private final Map<String, Integer> policyScores = new ConcurrentHashMap<>();
+
+    private final AtomicInteger policyChromosomes = new AtomicInteger();
+    private final AtomicInteger policyHits = new AtomicInteger();
+
+    /* Chromosomes of this generation whose fitness does not come from all of their games, because
+     they were pruned, raced out, not promoted by the prescreen or failed; the fitness memo skips them */
+    private final Set<Chromosome> partial = Collections.synchronizedSet(Collections.newSetFromMap(new IdentityHashMap<>()));
+
+    /* Speciated fitness of the last chromosome selection kept besides the species champions in the
+     previous generation, 0 until a generation has been evaluated */
+    private volatile int pruneCutoff = 0;
+
+    /* Fitness of each species' champion in the previous generation */
+    private volatile Map<Specie, Integer> championFitness = Collections.emptyMap();
+
+    /* Chromosomes pruned and frames played this generation */
+    private final AtomicInteger prunedChromosomes = new AtomicInteger();
+    private final AtomicLong framesPlayed = new AtomicLong();
+
+    /* Ghost paths of the seeds played in the current generation */
+    private final Map<Long, GhostTrajectory> trajectories = new ConcurrentHashMap<>();
+
     private final static Logger logger = Logger.getLogger(PacmanFitnessFunction.class);
 
     private ActivatorTranscriber factory;
 
-    private Random rand;
+    private TrialScheduler trialScheduler;
+
+    private FitnessMemo fitnessMemo;
+
+    private EvaluationScheduler evaluationScheduler;
+
+    private WorkerPool workerPool;
 
     private boolean showGame = false;
 
@@ -71,157 +171,951 @@ public class PacmanFitnessFunction implements BulkFitnessFunction, Configurable
             factory = (ActivatorTranscriber) props.singletonObjectProperty(ActivatorTranscriber.class);
             maxTimesteps = props.getIntProperty(TIMESTEPS_KEY, DEFAULT_TIMESTEPS);
             numTrials = props.getIntProperty(NUM_TRIALS_KEY, DEFAULT_NUM_TRIALS);
-            Randomizer randomizer = (Randomizer) props.singletonObjectProperty(Randomizer.class);
-            rand = randomizer.getRand();
+            decisionsOnly = props.getBooleanProperty(DECISIONS_ONLY_KEY, false);
+            macroSteps = props.getBooleanProperty(MACRO_STEPS_KEY, false);
+            ghostReplay = props.getBooleanProperty(GHOST_REPLAY_KEY, false);
+            prune = props.getBooleanProperty(PRUNE_KEY, false);
+            survivalRate = props.getFloatProperty(NeatConfiguration.SURVIVAL_RATE_KEY,
+                    NeatConfiguration.DEFAULT_SURVIVAL_RATE);
+            elitism = props.getBooleanProperty(NeatConfiguration.ELITISM_KEY, true);
+            elitismMinSpecieSize = props.getIntProperty(NeatConfiguration.ELITISM_MIN_SPECIE_SIZE_KEY, 6);
+            racing = props.getBooleanProperty(RACING_KEY, false);
+            racingKeep = props.getFloatProperty(RACING_KEEP_KEY, 0.5f);
+            if (racingKeep <= 0 || racingKeep > 1) {
+                throw new IllegalArgumentException(RACING_KEEP_KEY + " must be in (0, 1]");
+            }
+            prescreenTimesteps = props.getIntProperty(PRESCREEN_TIMESTEPS_KEY, 0);
+            prescreenPromote = props.getFloatProperty(PRESCREEN_PROMOTE_KEY, 0.5f);
+            constantPolicies = props.getBooleanProperty(CONSTANT_POLICIES_KEY, false);
+            if (prescreenPromote <= 0 || prescreenPromote > 1) {
+                throw new IllegalArgumentException(PRESCREEN_PROMOTE_KEY + " must be in (0, 1]");
+            }
+            accumulate = props.getBooleanProperty(ACCUMULATE_KEY, false);
+            accumulateTrials = props.getIntProperty(ACCUMULATE_TRIALS_KEY, 1);
+            accumulateConfidence = props.getDoubleProperty(ACCUMULATE_CONFIDENCE_KEY, 0);
+            if (accumulateTrials < 1) {
+                throw new IllegalArgumentException(ACCUMULATE_TRIALS_KEY + " must be positive");
+            }
+            lockstep = props.getBooleanProperty(LOCKSTEP_KEY, false);
+            trialScheduler = (TrialScheduler) props.singletonObjectProperty(TrialScheduler.class);
+            /* A recorded path is only replayed when other chromosomes play the same seed */
+            if (ghostReplay && !trialScheduler.isCommonSeeds()) {
+                logger.warn(GHOST_REPLAY_KEY + " without " + TrialScheduler.COMMON_SEEDS_KEY
+                        + " records every path once and never replays it, ghosts are moved in every game");
+                ghostReplay = false;
+            }
+            fitnessMemo = (FitnessMemo) props.singletonObjectProperty(FitnessMemo.class);
+            evaluationScheduler = (EvaluationScheduler) props.singletonObjectProperty(EvaluationScheduler.class);
+            workerPool = (WorkerPool) props.singletonObjectProperty(WorkerPool.class);
         } catch (Exception e) {
             throw new IllegalArgumentException("invalid properties: " + e.getClass().toString() + ": " + e.getMessage());
         }
     }
 
     /**
+     * Evaluates the chromosomes on the worker pool's threads, or one by one while a game is shown.
+     * Every chromosome builds its own activator and its games are seeded by the trial scheduler, so the
+     * fitness values do not depend on the number of threads. With the fitness memo, a chromosome
+     * whose network already played the same seeds, in this or the previous generation, gets that
+     * fitness without playing, and networks that appear several times in a generation play once.
+     *
      * @param genotypes
      * @see org.jgap.BulkFitnessFunction#evaluate(java.util.List)
      * @see IdentifyImageFitnessFunction#evaluate(Chromosome)
      */
     @Override
     public void evaluate(List genotypes) {
+        trialScheduler.nextGeneration();
+        fitnessMemo.nextGeneration();
+        evaluationScheduler.nextGeneration();
+        trajectories.clear();
+        partial.clear();
+        policyScores.clear();
+        policyChromosomes.set(0);
+        policyHits.set(0);
+        prunedChromosomes.set(0);
+        framesPlayed.set(0);
+        if (showGame) {
+            Iterator it = genotypes.iterator();
+            while (it.hasNext()) {
+                Chromosome c = (Chromosome) it.next();
+                evaluate(c);
+            }
+            return;
+        }
 
-        // evaluate each chromosome
-        Iterator it = genotypes.iterator();
-        while (it.hasNext()) {
-            Chromosome c = (Chromosome) it.next();
-            evaluate(c);
+        Chromosome[] population = (Chromosome[]) genotypes.toArray(new Chromosome[genotypes.size()]);
+        Object[] keys = new Object[population.length];
+        Map<Object, Chromosome> played = new HashMap<>();
+        Chromosome[] unknown = population;
+        // An accumulated fitness depends on more than the network and its seeds this generation
+        boolean memo = fitnessMemo.isEnabled() && !accumulate;
+        if (memo) {
+            workerPool.execute(population.length, i -> keys[i] = memoKey(population[i]));
+            unknown = recall(population, keys, played);
+        }
+
+        // Survivors that have played before only top up their trials, without screening or racing
+        Chromosome[] veterans = Arrays.stream(unknown).filter(c -> accumulate && c.getTrialCount() > 0)
+                .toArray(Chromosome[]::new);
+        Chromosome[] newcomers = Arrays.stream(unknown).filter(c -> !accumulate || c.getTrialCount() == 0)
+                .toArray(Chromosome[]::new);
+        Chromosome[] screened = prescreenTimesteps > 0 ? prescreen(newcomers) : newcomers;
+        Chromosome[] chromosomes;
+        if (racing) {
+            race(screened);
+            chromosomes = veterans;
+        } else {
+            chromosomes = Arrays.copyOf(screened, screened.length + veterans.length);
+            System.arraycopy(veterans, 0, chromosomes, screened.length, veterans.length);
+        }
+        int[] order = evaluationScheduler.order(chromosomes);
+        workerPool.execute(chromosomes.length, k -> evaluate(chromosomes[order[k]]));
+        if (memo) {
+            remember(population, keys, played);
+        }
+        if (accumulate) {
+            logger.info(veterans.length + " survivors played " + accumulateTrials + " more trials, "
+                    + newcomers.length + " chromosomes played from scratch");
+        }
+        if (prune && !racing) {
+            logger.info("pruned " + prunedChromosomes.get() + " of " + chromosomes.length + " chromosomes, "
+                    + framesPlayed.get() + " frames played");
+            updatePruneCutoff(population);
+        }
+        if (constantPolicies) {
+            logger.info(policyChromosomes.get() + " input independent chromosomes, " + policyScores.size()
+                    + " games played for them, " + policyHits.get() + " reused");
+        }
+    }
+
+    /**
+     * @param c
+     * @return fitness memo key of the network of <code>c</code> with the seeds of its trials
+     */
+    private Object memoKey(Chromosome c) {
+        long[] seeds = new long[numTrials];
+        for (int i = 0; i < numTrials; i++) {
+            seeds[i] = trialScheduler.getSeed(c, i);
+        }
+        return fitnessMemo.key(c, seeds);
+    }
+
+    /**
+     * Sets the fitness of chromosomes the memo knows, and picks one chromosome to play for every
+     * other key.
+     *
+     * @param population
+     * @param keys memo keys of the population
+     * @param played filled with the chromosome that plays for each key not in the memo
+     * @return chromosomes that play, in population order
+     */
+    private Chromosome[] recall(Chromosome[] population, Object[] keys, Map<Object, Chromosome> played) {
+        List<Chromosome> result = new ArrayList<>();
+        int hits = 0;
+        for (int i = 0; i < population.length; i++) {
+            Integer fitness = fitnessMemo.get(keys[i]);
+            if (fitness != null) {
+                population[i].setFitnessValue(fitness);
+                hits++;
+            } else if (played.putIfAbsent(keys[i], population[i]) == null) {
+                result.add(population[i]);
+            }
+        }
+        logger.info("fitness memo: " + hits + " of " + population.length + " chromosomes remembered, "
+                + (population.length - hits - result.size()) + " share a network with another chromosome, "
+                + result.size() + " play");
+        return result.toArray(new Chromosome[result.size()]);
+    }
+
+    /**
+     * Gives chromosomes that did not play the fitness of the one that played for them, and stores
+     * the fitness of every chromosome that played all of its games.
+     *
+     * @param population
+     * @param keys memo keys of the population
+     * @param played chromosome that played for each key not in the memo
+     */
+    private void remember(Chromosome[] population, Object[] keys, Map<Object, Chromosome> played) {
+        for (int i = 0; i < population.length; i++) {
+            Chromosome c = played.get(keys[i]);
+            if (c == population[i]) {
+                if (!partial.contains(c)) {
+                    fitnessMemo.put(keys[i], c.getFitnessValue());
+                }
+            } else if (c != null) {
+                population[i].setFitnessValue(c.getFitnessValue());
+                population[i].setScreeningFitnessValue(c.getScreeningFitnessValue());
+            }
         }
     }
 
     /**
-     * Evaluate chromosome and set fitness.
+     * Plays every trial of every chromosome for only <code>pacman.prescreen.timesteps</code>
+     * steps, and promotes the best <code>pacman.prescreen.promote</code> of each species to full
+     * evaluation, so that young species are not crowded out by established ones. A short game is
+     * the start of the full one, so the short score, which stays the fitness of chromosomes that
+     * are not promoted, never exceeds what the full evaluation would have given. The short score of
+     * every chromosome is also recorded as its screening fitness.
+     *
+     * @param chromosomes
+     * @return the promoted chromosomes, in population order
+     */
+    private Chromosome[] prescreen(Chromosome[] chromosomes) {
+        int[] scores = new int[chromosomes.length];
+        Activator[] activators = new Activator[chromosomes.length];
+        int[] order = evaluationScheduler.order(chromosomes);
+        workerPool.execute(chromosomes.length, k -> {
+            int i = order[k];
+            for (int trial = 0; trial < numTrials; trial++) {
+                scores[i] += playTrial(chromosomes, activators, i, trial, prescreenTimesteps);
+            }
+            activators[i] = null;
+            chromosomes[i].setScreeningFitnessValue(scores[i]);
+            chromosomes[i].setFitnessValue(scores[i]);
+        });
+
+        // Chromosomes without a species are ranked on their own
+        Map<Object, List<Integer>> species = new IdentityHashMap<>();
+        for (int i = 0; i < chromosomes.length; i++) {
+            Object key = chromosomes[i].getSpecie() != null ? chromosomes[i].getSpecie() : chromosomes[i];
+            species.computeIfAbsent(key, k -> new ArrayList<>()).add(i);
+        }
+        boolean[] promoted = new boolean[chromosomes.length];
+        int numPromoted = 0;
+        for (List<Integer> members : species.values()) {
+            members.sort((a, b) -> scores[a] != scores[b] ? Integer.compare(scores[b], scores[a]) : a - b);
+            int n = (int) Math.ceil(members.size() * prescreenPromote);
+            for (int k = 0; k < n; k++) {
+                promoted[members.get(k)] = true;
+            }
+            numPromoted += n;
+        }
+
+        Chromosome[] result = new Chromosome[numPromoted];
+        int n = 0;
+        for (int i = 0; i < chromosomes.length; i++) {
+            if (promoted[i]) {
+                result[n++] = chromosomes[i];
+            } else {
+                partial.add(chromosomes[i]);
+            }
+        }
+        logger.info("prescreen promoted " + numPromoted + " of " + chromosomes.length + " chromosomes");
+        return result;
+    }
+
+    /**
+     * Evaluates the population by successive halving: every chromosome plays the first trial, then
+     * after each trial only the best <code>pacman.racing.keep</code> of those still racing play the
+     * next one, up to <code>pacman.trials</code>. Fitness is the mean score of the trials played,
+     * scaled to the sum over all trials, so chromosomes that played different numbers of trials
+     * compare fairly in selection and fitness sharing.
+     *
+     * @param chromosomes
+     */
+    private void race(Chromosome[] chromosomes) {
+        int[] sums = new int[chromosomes.length];
+        int[] played = new int[chromosomes.length];
+        Activator[] activators = new Activator[chromosomes.length];
+        Integer[] racers = new Integer[chromosomes.length];
+        for (int i = 0; i < racers.length; i++) {
+            racers[i] = i;
+        }
+
+        int numRacers = racers.length;
+        for (int trial = 0; trial < numTrials && numRacers > 0; trial++) {
+            if (trial > 0) {
+                // Best mean first, ties in population order so the race does not depend on threads
+                Arrays.sort(racers, 0, numRacers, (a, b) -> {
+                    long diff = (long) sums[b] * played[a] - (long) sums[a] * played[b];
+                    return diff != 0 ? Long.signum(diff) : a - b;
+                });
+                numRacers = Math.max(1, (int) Math.ceil(numRacers * racingKeep));
+                for (int k = numRacers; k < racers.length; k++) {
+                    activators[racers[k]] = null;
+                }
+            }
+            int t = trial;
+            workerPool.execute(numRacers, k -> {
+                int i = racers[k];
+                sums[i] += playTrial(chromosomes, activators, i, t, maxTimesteps);
+                played[i]++;
+            });
+        }
+
+        for (int i = 0; i < chromosomes.length; i++) {
+            chromosomes[i].setFitnessValue(Math.round((float) sums[i] * numTrials / Math.max(1, played[i])));
+            if (played[i] < numTrials) {
+                partial.add(chromosomes[i]);
+            }
+        }
+    }
+
+    /**
+     * Plays one trial of a chromosome. Its network is transcribed for its first trial and reset
+     * for the others.
+     *
+     * @param chromosomes
+     * @param activators network of each chromosome, null until its first trial
+     * @param i index of the chromosome
+     * @param trial
+     * @param timesteps
+     * @return score of the game, 0 if the chromosome can not be played
+     */
+    private int playTrial(Chromosome[] chromosomes, Activator[] activators, int i, int trial, int timesteps) {
+        Chromosome c = chromosomes[i];
+        long start = System.nanoTime();
+        try {
+            char[] policy = inputIndependentPolicy(c);
+            long seed = trialScheduler.getSeed(c, trial);
+            if (policy != null) {
+                return policyTrial(policy, seed, timesteps);
+            }
+            if (activators[i] == null) {
+                activators[i] = factory.newActivator(c);
+            } else {
+                activators[i].reset();
+            }
+            return singleTrial(activators[i], null, seed, timesteps);
+        } catch (Throwable e) {
+            logger.warn("error evaluating chromosome " + c.toString(), e);
+            partial.add(c);
+            return 0;
+        } finally {
+            evaluationScheduler.addCost(c, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Records what selection did with the population, as <code>NaturalSelector</code> and
+     * <code>SimpleSelector</code> select: with elitism, the champion of every species large enough
+     * survives, the others compete for the remaining places by speciated fitness, i.e. fitness
+     * shared among the members of their species.
+     *
+     * @param chromosomes evaluated population
+     */
+    private void updatePruneCutoff(Chromosome[] chromosomes) {
+        Map<Specie, Integer> champions = new IdentityHashMap<>();
+        Set<Chromosome> elite = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Chromosome c : chromosomes) {
+            Specie specie = c.getSpecie();
+            if (specie != null && !champions.containsKey(specie)) {
+                champions.put(specie, specie.getFittest().getFitnessValue());
+                if (elitism && specie.getChromosomes().size() >= elitismMinSpecieSize) {
+                    elite.add(specie.getFittest());
+                }
+            }
+        }
+        int[] others = Arrays.stream(chromosomes).filter(c -> !elite.contains(c))
+                .mapToInt(Chromosome::getSpeciatedFitnessValue).sorted().toArray();
+        int places = (int) (chromosomes.length * survivalRate + 0.5) - elite.size();
+        if (places <= 0) {
+            pruneCutoff = Integer.MAX_VALUE;
+        } else if (places > others.length) {
+            pruneCutoff = 0;
+        } else {
+            pruneCutoff = others[others.length - places];
+        }
+        championFitness = champions;
+    }
+
+    /**
+     * Returns the highest fitness at which a chromosome would have been dropped by the selection
+     * of the previous generation: its speciated fitness, with the current size of its species, is
+     * below the cut-off, and with elitism it is below the fitness of its species' champion. A
+     * chromosome of a species that is new this generation could be its champion and is never
+     * pruned.
+     *
+     * @param c
+     * @return highest fitness at which <code>c</code> is pruned, -1 if it is not
+     */
+    private int pruneLimit(Chromosome c) {
+        int cutoff = pruneCutoff;
+        // Speciated fitness is at least 1
+        if (cutoff <= 1) {
+            return -1;
+        }
+        Specie specie = c.getSpecie();
+        int size = specie == null ? 1 : specie.getChromosomes().size();
+        long limit = (long) Math.ceil(size * (cutoff - 0.5)) - 1;
+        while (limit >= 0 && (int) ((double) limit / size + 0.5) >= cutoff) {
+            limit--;
+        }
+        if (elitism && specie != null) {
+            Integer champion = championFitness.get(specie);
+            if (champion == null) {
+                return -1;
+            }
+            limit = Math.min(limit, champion - 1);
+        }
+        return (int) Math.min(limit, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Returns an upper bound of the score a game can still gain. The player eats a pellet when it
+     * reaches the center of a cell, and at 4 pixels per frame it takes 5 frames from one center to
+     * the next, so in <code>frames</code> frames it reaches at most <code>(frames + 4) / 5</code>
+     * centers. Only the wrap through the side tunnel reaches a new cell sooner, the frame after the
+     * player reaches the cell at either end, so at most 2 pellets come on top.
+     *
+     * @param pelletsLeft pellets not yet eaten
+     * @param frames frames left to play
+     * @return most the score can still grow
+     */
+    static int maxGain(int pelletsLeft, int frames) {
+        return Game.PELLET_SCORE * Math.min(pelletsLeft, (frames + 4) / 5 + 2);
+    }
+
+    /**
+     * Evaluate chromosome and set fitness. With pruning, see <code>evaluatePruned()</code>, the
+     * trials are played in order and stop as soon as the chromosome can not be selected. With
+     * accumulation, a chromosome that has played before only plays
+     * <code>pacman.accumulate.trials</code> more trials, and is never pruned. With lockstep, the
+     * trials of a network that is asked every frame are played together, see <code>lockstepTrials()</code>.
      *
      * @param c
      */
     public void evaluate(Chromosome c) {
+        boolean topUp = accumulate && !showGame && c.getTrialCount() > 0;
+        if (prune && !showGame && !topUp) {
+            evaluatePruned(c);
+            return;
+        }
         try {
-            Activator activator = factory.newActivator(c);
+            long start = System.nanoTime();
+            int trials = showGame ? 1 : topUp ? accumulateTrials : numTrials;
+            int first = topUp ? firstNewTrial(c) : 0;
+            char[] policy = inputIndependentPolicy(c);
+            boolean together = lockstep && !showGame && !decisionsOnly && policy == null;
+            evaluationScheduler.addCost(c, System.nanoTime() - start);
+
+            // Games are timed one by one, their threads may run other work while this one waits
+            int[] scores = new int[trials];
+            if (together) {
+                long gamesStart = System.nanoTime();
+                lockstepTrials(c, first, scores);
+                evaluationScheduler.addCost(c, System.nanoTime() - gamesStart);
+            } else {
+                // Every thread playing trials transcribes the network once and resets it before each
+                // game, so no recurrent state carries over from one game to the next
+                workerPool.execute(trials, () -> policy != null ? null : newActivator(c), (activator, i) -> {
+                    long gameStart = System.nanoTime();
+                    if (policy != null) {
+                        scores[i] = policyTrial(policy, trialScheduler.getSeed(c, first + i), maxTimesteps);
+                    } else {
+                        activator.reset();
+                        scores[i] = singleTrial(activator, trialScheduler.getSeed(c, first + i));
+                    }
+                    evaluationScheduler.addCost(c, System.nanoTime() - gameStart);
+                });
+            }
 
             // calculate fitness, sum of multiple trials
             int fitness = 0;
-            for (int i = 0; i < numTrials; i++) {
-                fitness += singleTrial(activator);
-                if (showGame) {
+            for (int score : scores) {
+                fitness += score;
+            }
+            c.setFitnessValue(accumulate && !showGame ? accumulatedFitness(c, scores, trials) : fitness);
+        } catch (Throwable e) {
+            logger.warn("error evaluating chromosome " + c.toString(), e);
+            partial.add(c);
+            c.setFitnessValue(0);
+        }
+    }
+
+    /**
+     * Evaluates chromosome one trial at a time, and stops in the middle of a game once even the
+     * most it can still score, see <code>maxGain()</code>, in this trial and the ones left would
+     * leave it below <code>pruneLimit()</code>. Its fitness is then the score reached so far, and it
+     * is neither selected nor a species champion. This is a heuristic: the limit comes from the
+     * selection of the previous generation, and a chromosome is only surely dropped if the
+     * survivors of this generation score at least as well; with new trial seeds they may not.
+     *
+     * @param c
+     */
+    private void evaluatePruned(Chromosome c) {
+        int limit = pruneLimit(c);
+        int maxTrialScore = maxGain(Game.NUM_PELLETS, maxTimesteps);
+        int fitness = 0;
+        int[] scores = new int[numTrials];
+        int played = 0;
+        int completed = 0;
+        long start = System.nanoTime();
+        try {
+            char[] policy = inputIndependentPolicy(c);
+            Activator activator = policy != null ? null : factory.newActivator(c);
+            while (played < numTrials) {
+                long seed = trialScheduler.getSeed(c, played);
+                if (activator != null) {
+                    activator.reset();
+                }
+                // The game stops once its score plus the most it can still gain is at most this
+                int bar = limit < 0 ? -1 : limit - fitness - (numTrials - played - 1) * maxTrialScore;
+                int[] trial = new int[2];
+                scores[played] = policy != null ? policyTrial(policy, seed, maxTimesteps)
+                        : singleTrial(activator, null, seed, maxTimesteps, bar, trial);
+                framesPlayed.addAndGet(trial[0]);
+                fitness += scores[played++];
+                if (trial[1] == 0) {
+                    completed++;
+                }
+                if (limit >= 0 && fitness + (numTrials - played) * maxTrialScore <= limit) {
+                    logger.debug("pruned chromosome " + c.getId() + " in trial " + played + " after "
+                            + trial[0] + " frames");
+                    prunedChromosomes.incrementAndGet();
+                    partial.add(c);
                     break;
                 }
             }
-            c.setFitnessValue(fitness);
+            c.setFitnessValue(accumulate ? accumulatedFitness(c, scores, completed) : fitness);
         } catch (Throwable e) {
             logger.warn("error evaluating chromosome " + c.toString(), e);
+            partial.add(c);
             c.setFitnessValue(0);
+        } finally {
+            evaluationScheduler.addCost(c, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * @param c
+     * @return a new activator of the network of <code>c</code>, timed as part of its evaluation
+     * @throws IllegalArgumentException if <code>c</code> can not be transcribed
+     */
+    private Activator newActivator(Chromosome c) {
+        long start = System.nanoTime();
+        try {
+            return factory.newActivator(c);
+        } catch (TranscriberException e) {
+            throw new IllegalArgumentException("can not transcribe chromosome " + c.getId() + ": " + e.getMessage(), e);
+        } finally {
+            evaluationScheduler.addCost(c, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * @param c chromosome that has played before
+     * @return index of the first trial of a top-up: the trials of this generation with common seeds,
+     * so survivors and newcomers share seeds, otherwise the trials after those already played
+     */
+    private int firstNewTrial(Chromosome c) {
+        return trialScheduler.isCommonSeeds() ? 0 : c.getTrialCount();
+    }
+
+    /**
+     * Adds the scores of this generation to those a chromosome played before and estimates its
+     * fitness from all of them: the mean score, less <code>pacman.accumulate.confidence</code>
+     * standard errors, scaled to <code>pacman.trials</code> games. The more a chromosome has played,
+     * the smaller its standard error, so a long lived survivor is not displaced by a newcomer with a
+     * few lucky games.
+     *
+     * @param c
+     * @param scores
+     * @param played number of scores to add
+     * @return estimated fitness
+     */
+    private int accumulatedFitness(Chromosome c, int[] scores, int played) {
+        for (int i = 0; i < played; i++) {
+            c.addTrialScore(scores[i]);
         }
+        double estimate = c.getTrialScoreMean();
+        if (accumulateConfidence > 0 && c.getTrialCount() > 0) {
+            estimate -= accumulateConfidence * Math.sqrt(c.getTrialScoreVariance() / c.getTrialCount());
+        }
+        return (int) Math.round(Math.max(0, estimate) * numTrials);
+    }
+
+    /**
+     * Plays one game. The ghosts draw their moves from <code>seed</code>, so a trial can be
+     * replayed exactly and trials on different threads share no random generator. With ghost
+     * replay, the ghosts of the first life follow the trajectory shared by every game of the seed.
+     *
+     * @param activator
+     * @param seed
+     * @return score of the game
+     */
+    private int singleTrial(Activator activator, long seed) {
+        return singleTrial(activator, null, seed, maxTimesteps);
+    }
+
+    /**
+     * Plays one game for at most <code>maxTimesteps</code> steps, asking either the network or,
+     * if one is given, the policy of an input independent network for directions.
+     *
+     * @param activator network, unused if <code>policy</code> is given
+     * @param policy directions of an input independent network, see
+     * <code>inputIndependentPolicy()</code>, or null
+     * @param seed
+     * @param maxTimesteps
+     * @return score of the game
+     */
+    private int singleTrial(Activator activator, char[] policy, long seed, int maxTimesteps) {
+        return singleTrial(activator, policy, seed, maxTimesteps, -1, null);
     }
 
-    private int singleTrial(Activator activator) {
-        Pacman pacman = new Pacman(true, showGame);
-        HashSet<String> history = new HashSet<>();
+    /**
+     * Plays one game as <code>singleTrial( Activator, char[], long, int )</code>, but stops it
+     * early once its score plus the most it can still gain, see <code>maxGain()</code>, is at most
+     * <code>bar</code>.
+     *
+     * @param activator
+     * @param policy
+     * @param seed
+     * @param maxTimesteps
+     * @param bar score the game has to be able to exceed to go on, negative to play it out
+     * @param result if not null, set to the frames played and to 1 if the game was stopped early
+     * @return score of the game, or when it stopped early the score so far
+     */
+    private int singleTrial(Activator activator, char[] policy, long seed, int maxTimesteps, int bar, int[] result) {
+        boolean cut = false;
+        Game game = new Game(seed, ghostReplay ? trajectories.computeIfAbsent(seed, GhostTrajectory::new) : null);
+        Pacman display = showGame ? new Pacman(game, true, true) : null;
         int fitness = 0;
         int stuckCounter = 100;
+        int activations = 0;
+        char direction = 'L';
+        int lastInputKey = -1;
+
+        // Reused every activation, so the simulation loop allocates nothing
+        double[] networkInput = new double[5 * 5 * 3 + 1];
+        double[] networkOutput = new double[4];
 
-        // Run the pole-balancing simulation.
+        // Repeating an action is only exact for a network that answers the same input the same
+        // way; a recurrent network, and a policy longer than one direction, is asked every frame
+        boolean decide = decisionsOnly && (policy != null ? policy.length == 1 : !activator.isRecurrent());
+
+        // Frames between decisions are only skipped when the network is not asked every frame
+        boolean skipFrames = macroSteps && decide && display == null;
+        int frames = 1;
+
+        // Run the pacman simulation.
         int currentTimestep;
-        for (currentTimestep = 0; currentTimestep < maxTimesteps; currentTimestep++) {
-            // Network activation values
-            double[] networkInput = getNetworkInput(pacman.b);
-
-            // Activate the network.
-            double[] networkOutput = activator.next(networkInput);
-
-            int maxI = -1;
-            double maxV = Double.NEGATIVE_INFINITY;
-            for (int i = 0; i < 4; ++i) {
-                if (networkOutput[i] > maxV) {
-                    maxI = i;
-                    maxV = networkOutput[i];
+        for (currentTimestep = 0; currentTimestep < maxTimesteps; currentTimestep += frames) {
+            // In decisions only mode, repeat the last action unless the network's choice can change
+            // the game and its input differs from the one it last saw
+            boolean activate = true;
+            if (decide) {
+                activate = false;
+                if (game.isDecisionPoint()) {
+                    int inputKey = getNetworkInputKey(game);
+                    activate = inputKey != lastInputKey;
+                    lastInputKey = inputKey;
                 }
             }
-            switch (maxI) {
-                case 0:
-                    pacman.b.player.desiredDirection = 'L';
-                    break;
-                case 1:
-                    pacman.b.player.desiredDirection = 'U';
-                    break;
-                case 2:
-                    pacman.b.player.desiredDirection = 'R';
-                    break;
-                case 3:
-                    pacman.b.player.desiredDirection = 'D';
-                    break;
-                default:
-                    throw new RuntimeException("This shouldn't happen");
+
+            if (activate && policy != null) {
+                direction = policy[Math.min(activations, policy.length - 1)];
+                activations++;
+            } else if (activate) {
+                // Network activation values
+                getNetworkInput(game, networkInput);
+
+                // Activate the network.
+                activator.next(networkInput, networkOutput);
+                activations++;
+                direction = chooseDirection(networkOutput);
+            }
+            if (direction == NO_DIRECTION) {
+                throw new RuntimeException("This shouldn't happen");
             }
 
-            pacman.stepFrame(false);
-            if (showGame) {
-                pacman.b.repaint(0, 0, 600, 600);
+            // Advance through the quiet frames that follow in one go, stopping before the stuck
+            // counter could run out
+            if (skipFrames) {
+                frames = game.advance(direction, Math.min(maxTimesteps - currentTimestep, stuckCounter));
+            } else {
+                game.step(direction);
+            }
+            if (display != null) {
+                display.b.repaint(0, 0, 600, 600);
                 try {
                     Thread.sleep(60);
                 } catch (InterruptedException ex) {
                     java.util.logging.Logger.getLogger(PacmanFitnessFunction.class.getName()).log(Level.SEVERE, null, ex);
                 }
-            } else {
-                pacman.b.paint(null);
             }
-            fitness = pacman.b.currScore;
+            fitness = game.currScore;
 
-            String pos = pacman.b.player.pelletX + " - " + pacman.b.player.pelletY;
-            if (history.contains(pos)) {
-                stuckCounter--;
+            if (game.isNewCell()) {
+                stuckCounter = 100 - (frames - 1);
             } else {
-                stuckCounter = 100;
-                history.add(pos);
+                stuckCounter -= frames;
             }
 
-            //System.out.println(game.currScore);
-            if (pacman.b.stopped || pacman.b.winScreen || pacman.b.overScreen || pacman.b.titleScreen || stuckCounter <= 0) {
+            if (game.stopped || game.winScreen || game.overScreen || game.titleScreen || stuckCounter <= 0) {
+                break;
+            }
+            if (bar >= 0 && fitness + maxGain(game.getPelletsLeft(), maxTimesteps - currentTimestep - frames) <= bar) {
+                cut = true;
                 break;
             }
         }
 
-        pacman.stop();
-        pacman.destroy();
+        if (display != null) {
+            display.destroy();
+        }
 
-        logger.debug("trial took " + currentTimestep + " steps");
+        logger.debug("trial took " + currentTimestep + " steps and " + activations + " activations, visited "
+                + game.getVisitedCount() + " cells");
+        if (result != null) {
+            result[0] = Math.min(currentTimestep + frames, maxTimesteps);
+            result[1] = cut ? 1 : 0;
+        }
         return fitness;
     }
 
-    public double[] getNetworkInput(Board game) {
-        double[] input = new double[5 * 5 * 3 + 1];
-        int p = 0;
-        if (game == null || game.state == null || game.pellets == null) {
-            return input;
-            //throw new RuntimeException("Game is not initialized");
+    /**
+     * Plays trials <code>first</code> to <code>first + scores.length - 1</code> of a chromosome
+     * together on one thread: the games are lanes of a <code>GameBatch</code> and the networks lanes
+     * of a <code>BatchActivator</code>, so every frame is one activation of all networks and one step
+     * of all games. Each lane plays the game <code>singleTrial()</code> plays with the network asked
+     * every frame, and stops where it stops.
+     *
+     * @param c
+     * @param first
+     * @param scores filled with the score of each trial
+     * @throws TranscriberException
+     */
+    private void lockstepTrials(Chromosome c, int first, int[] scores) throws TranscriberException {
+        int lanes = scores.length;
+        long[] seeds = new long[lanes];
+        for (int l = 0; l < lanes; l++) {
+            seeds[l] = trialScheduler.getSeed(c, first + l);
         }
+        GameBatch games = new GameBatch(seeds);
+        BatchActivator activator = factory.newBatchActivator(c, lanes);
+        double[][] inputs = new double[lanes][5 * 5 * 3 + 1];
+        double[][] outputs = new double[lanes][4];
+
+        // Lanes that stopped get no input, their networks' outputs are ignored
+        double[][] stimuli = new double[lanes][];
+        char[] directions = new char[lanes];
+        int[] stuckCounters = new int[lanes];
+        int[] timesteps = new int[lanes];
+        Arrays.fill(stuckCounters, 100);
 
-        for (int x = game.player.pelletX - 1; x <= game.player.pelletX + 1; ++x) {
-            for (int y = game.player.pelletY - 1; y <= game.player.pelletY + 1; ++y) {
-                if (x < 0 || y < 0 || x >= 20 || y >= 20) {
+        for (int currentTimestep = 0; currentTimestep < maxTimesteps && games.getActiveCount() > 0; currentTimestep++) {
+            for (int l = 0; l < lanes; l++) {
+                stimuli[l] = games.isActive(l) ? getNetworkInput(games, l, inputs[l]) : null;
+            }
+            activator.next(stimuli, outputs);
+            for (int l = 0; l < lanes; l++) {
+                if (games.isActive(l)) {
+                    directions[l] = chooseDirection(outputs[l]);
+                    if (directions[l] == NO_DIRECTION) {
+                        throw new RuntimeException("This shouldn't happen");
+                    }
+                }
+            }
+            games.step(directions);
+            for (int l = 0; l < lanes; l++) {
+                if (!games.isActive(l)) {
                     continue;
                 }
-                input[p++] = game.state[x][y] ? 1.0 : 0.0;
-                input[p++] = game.pellets[x][y] ? 1.0 : 0.0;
-                if((x == game.ghost1.pelletX && y == game.ghost1.pelletY)
-                    ||(x == game.ghost2.pelletX && y == game.ghost2.pelletY)
-                    ||(x == game.ghost3.pelletX && y == game.ghost3.pelletY)
-                    ||(x == game.ghost4.pelletX && y == game.ghost4.pelletY)){
-                    input[p] = 1.0;
+                scores[l] = games.getScore(l);
+                timesteps[l] = currentTimestep;
+                stuckCounters[l] = games.isNewCell(l) ? 100 : stuckCounters[l] - 1;
+                if (games.isOver(l) || stuckCounters[l] <= 0) {
+                    games.stop(l);
                 }
-                p++;
             }
         }
 
+        if (logger.isDebugEnabled()) {
+            for (int l = 0; l < lanes; l++) {
+                logger.debug("trial took " + (games.isActive(l) ? maxTimesteps : timesteps[l]) + " steps and "
+                        + (games.isActive(l) ? maxTimesteps : timesteps[l] + 1) + " activations, visited "
+                        + games.getVisitedCount(l) + " cells");
+            }
+        }
+    }
+
+    /* Direction chosen by outputs that have no maximum, e.g. all NaN */
+    private final static char NO_DIRECTION = 0;
+
+    /**
+     * @param networkOutput
+     * @return direction of the largest output, or <code>NO_DIRECTION</code> if there is none
+     */
+    private static char chooseDirection(double[] networkOutput) {
+        int maxI = -1;
+        double maxV = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < 4; ++i) {
+            if (networkOutput[i] > maxV) {
+                maxI = i;
+                maxV = networkOutput[i];
+            }
+        }
+        return maxI < 0 ? NO_DIRECTION : Maze.DIRECTIONS[maxI];
+    }
+
+    /**
+     * Finds networks whose outputs can not depend on what the sensor sees: no output is reachable
+     * from an input the sensor sets, and the neurons the outputs depend on have no loops. Such a
+     * network gives the same outputs at its n-th activation in every game, and after as many
+     * activations as it has neurons, every value has passed through all delays and the outputs stay
+     * the same. Playing its directions from a table gives the same games as playing the network.
+     *
+     * @param c
+     * @return the direction chosen at each activation, the last one repeating forever, or null if
+     * the network is not input independent or the shortcut is off
+     * @throws TranscriberException
+     */
+    private char[] inputIndependentPolicy(Chromosome c) throws TranscriberException {
+        if (!constantPolicies || showGame) {
+            return null;
+        }
+        Collection alleles = c.getAlleles();
+        List connections = NeatChromosomeUtility.getConnectionList(alleles);
+        List inputs = new ArrayList(NeatChromosomeUtility.getNeuronMap(alleles, NeuronType.INPUT).keySet());
+        Set outputs = NeatChromosomeUtility.getNeuronMap(alleles, NeuronType.OUTPUT).keySet();
+        Set sensed = NeatChromosomeUtility.getConnectedNeuronIds(connections,
+                inputs.subList(0, Math.min(SENSOR_INPUTS, inputs.size())), true);
+        if (!Collections.disjoint(sensed, outputs)) {
+            return null;
+        }
+        Set relevant = NeatChromosomeUtility.getConnectedNeuronIds(connections, outputs, false);
+        if (!NeatChromosomeUtility.isAcyclic(connections, relevant)) {
+            return null;
+        }
+
+        Activator activator = factory.newActivator(c);
+        double[] input = new double[activator.getInputDimension()];
+        double[] output = new double[activator.getOutputDimension()];
+        char[] policy = new char[relevant.size() + 1];
+        int length = 0;
+        for (int n = 0; n < policy.length; n++) {
+            policy[n] = chooseDirection(activator.next(input, output));
+            if (n == 0 || policy[n] != policy[n - 1]) {
+                length = n + 1;
+            }
+        }
+        policyChromosomes.incrementAndGet();
+        return Arrays.copyOf(policy, length);
+    }
+
+    /**
+     * Plays one game with the directions of an input independent network. Games depend only on the
+     * seed, the number of steps and the directions, so every such game is played once per
+     * generation and reused by every network with the same policy.
+     *
+     * @param policy
+     * @param seed
+     * @param timesteps
+     * @return score of the game
+     */
+    private int policyTrial(char[] policy, long seed, int timesteps) {
+        String key = seed + ":" + timesteps + ":" + new String(policy);
+        Integer score = policyScores.get(key);
+        if (score != null) {
+            policyHits.incrementAndGet();
+            return score;
+        }
+        score = singleTrial(null, policy, seed, timesteps);
+        policyScores.putIfAbsent(key, score);
+        return score;
+    }
+
+    public double[] getNetworkInput(Game game) {
+        return getNetworkInput(game, new double[5 * 5 * 3 + 1]);
+    }
+
+    /**
+     * Writes the network input of <code>game</code> into <code>input</code>, without allocating.
+     *
+     * @param game
+     * @param input array of 76 elements, overwritten
+     * @return <code>input</code>
+     */
+    public double[] getNetworkInput(Game game, double[] input) {
+        if (game == null || game.pellets == null) {
+            Arrays.fill(input, 0);
+            return input;
+        }
+        return getNetworkInput(game.player.pelletX, game.player.pelletY, game.pellets, getGhostWindow(game), input);
+    }
+
+    /**
+     * Writes the network input of a lane of <code>games</code> into <code>input</code>, the same as
+     * for a <code>Game</code> in the same state.
+     *
+     * @param games
+     * @param lane
+     * @param input array of 76 elements, overwritten
+     * @return <code>input</code>
+     */
+    private static double[] getNetworkInput(GameBatch games, int lane, double[] input) {
+        long[] pellets = games.getPellets(lane);
+        if (pellets == null) {
+            Arrays.fill(input, 0);
+            return input;
+        }
+        return getNetworkInput(games.getPlayerCellX(lane), games.getPlayerCellY(lane), pellets,
+                games.getGhostWindow(lane), input);
+    }
+
+    /**
+     * @param x column of the player's cell
+     * @param y row of the player's cell
+     * @param board pellets on the board
+     * @param ghosts ghost window, see <code>getGhostWindow()</code>
+     * @param input array of 76 elements, overwritten
+     * @return <code>input</code>
+     */
+    private static double[] getNetworkInput(int x, int y, long[] board, int ghosts, double[] input) {
+        Arrays.fill(input, 0);
+        int p = 0;
+
+        // 3x3 neighbourhood of the player as bit masks, bit (dx + 1) * 3 + (dy + 1)
+        int inside = Maze.windowMask(x, y);
+        int open = Maze.window(Maze.OPEN, x, y);
+        int pellets = Maze.window(board, x, y);
+
+        for (int k = 0; k < 9; ++k) {
+            if ((inside >>> k & 1) == 0) {
+                continue;
+            }
+            input[p++] = open >>> k & 1;
+            input[p++] = pellets >>> k & 1;
+            input[p++] = ghosts >>> k & 1;
+        }
+
         input[p] = 1.0;
 
         return input;
     }
 
+    /**
+     * @param game
+     * @return 3x3 neighbourhood of the player as a bit mask with the bits of cells that hold a ghost
+     * set, laid out as Maze.window
+     */
+    private int getGhostWindow(Game game) {
+        int ghosts = 0;
+        for (Ghost ghost : game.ghosts) {
+            int dx = ghost.pelletX - game.player.pelletX;
+            int dy = ghost.pelletY - game.player.pelletY;
+            if (dx >= -1 && dx <= 1 && dy >= -1 && dy <= 1) {
+                ghosts |= 1 << ((dx + 1) * 3 + dy + 1);
+            }
+        }
+        return ghosts;
+    }
+
+    /**
+     * Packs everything <code>getNetworkInput</code> reads from a started game into an int: equal keys
+     * mean equal network input, without building the input array.
+     *
+     * @param game
+     * @return input key
+     */
+    private int getNetworkInputKey(Game game) {
+        int x = game.player.pelletX;
+        int y = game.player.pelletY;
+        return (((x * Maze.SIZE + y) << 9 | Maze.window(game.pellets, x, y)) << 9) | getGhostWindow(game);
+    }
+
     /**
      * @see org.jgap.BulkFitnessFunction#getMaxFitnessValue()
      */
@@ -230,6 +1124,19 @@ public class PacmanFitnessFunction implements BulkFitnessFunction, Configurable
         return 50 * 173 * numTrials;
     }
 
+    /**
+     * Logs what building the networks took, e.g. how many compiled networks were compiled, once
+     * the run is completed.
+     *
+     * @see org.jgap.event.GeneticEventListener#geneticEventFired(org.jgap.event.GeneticEvent)
+     */
+    @Override
+    public void geneticEventFired(GeneticEvent event) {
+        if (GeneticEvent.RUN_COMPLETED_EVENT.equals(event.getEventName())) {
+            logger.info(factory);
+        }
+    }
+
     /**
      * enable GUI display of pole balancing
      */
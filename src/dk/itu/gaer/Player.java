@@ -1,11 +1,6 @@
 package dk.itu.gaer;
 
 
-import java.util.HashSet;
-import java.util.Set;
-
-
-
 /* This is the pacman object */
 public class Player extends Mover {
 
@@ -56,65 +51,29 @@ public class Player extends Mover {
         lastX = x;
         lastY = y;
 
+        int moves = movesAt(x, y);
+        int desired = Maze.direction(desiredDirection);
+        int current = Maze.direction(currDirection);
+
         /* Try to turn in the direction input by the user */
- /*Can only turn if we're in center of a grid*/
-        if (x % 20 == 0 && y % 20 == 0
-                || /* Or if we're reversing*/ (desiredDirection == 'L' && currDirection == 'R')
-                || (desiredDirection == 'R' && currDirection == 'L')
-                || (desiredDirection == 'U' && currDirection == 'D')
-                || (desiredDirection == 'D' && currDirection == 'U')) {
-            switch (desiredDirection) {
-                case 'L':
-                    if (isValidDest(x - increment, y)) {
-                        x -= increment;
-                    }
-                    break;
-                case 'R':
-                    if (isValidDest(x + gridSize, y)) {
-                        x += increment;
-                    }
-                    break;
-                case 'U':
-                    if (isValidDest(x, y - increment)) {
-                        y -= increment;
-                    }
-                    break;
-                case 'D':
-                    if (isValidDest(x, y + gridSize)) {
-                        y += increment;
-                    }
-                    break;
+ /*Can only turn if we're in center of a grid, or if we're reversing*/
+        if ((moves & Maze.CENTRE) != 0 || desired == Maze.reverse(current)) {
+            if ((moves >> desired & 1) != 0) {
+                x += Maze.STEP_X[desired];
+                y += Maze.STEP_Y[desired];
             }
         }
         /* If we haven't moved, then move in the direction the pacman was headed anyway */
         if (lastX == x && lastY == y) {
-            switch (currDirection) {
-                case 'L':
-                    if (isValidDest(x - increment, y)) {
-                        x -= increment;
-                    } else if (y == 9 * gridSize && x < 2 * gridSize) {
-                        x = max - gridSize * 1;
-                        teleport = true;
-                    }
-                    break;
-                case 'R':
-                    if (isValidDest(x + gridSize, y)) {
-                        x += increment;
-                    } else if (y == 9 * gridSize && x > max - gridSize * 2) {
-                        x = 1 * gridSize;
-                        teleport = true;
-                    }
-                    break;
-                case 'U':
-                    if (isValidDest(x, y - increment)) {
-                        y -= increment;
-                    }
-                    break;
-                case 'D':
-                    if (isValidDest(x, y + gridSize)) {
-                        y += increment;
-                    }
-                    break;
+            if ((moves >> current & 1) != 0) {
+                x += Maze.STEP_X[current];
+                y += Maze.STEP_Y[current];
+            } else if (currDirection == 'L' && y == 9 * gridSize && x < 2 * gridSize) {
+                x = max - gridSize * 1;
+                teleport = true;
+            } else if (currDirection == 'R' && y == 9 * gridSize && x > max - gridSize * 2) {
+                x = 1 * gridSize;
+                teleport = true;
             }
         } /* If we did change direction, update currDirection to reflect that */ else {
             currDirection = desiredDirection;
@@ -62,6 +62,23 @@ protected boolean m_isSelectedForNextGeneration = false;
  */
 protected int m_fitnessValue = -1;
 
+/**
+ * Fitness from a cheap, low fidelity evaluation used to decide whether this Chromosome is worth
+ * a full one, kept for analysis. -1 if it was not screened.
+ */
+protected int m_screeningFitnessValue = -1;
+
+/**
+ * Number of trials this Chromosome has played over all generations it was evaluated in, and the
+ * sum and sum of squares of their scores, for fitness functions that refine an estimate of its
+ * fitness every generation instead of starting over.
+ */
+protected int m_trialCount = 0;
+
+protected long m_trialScoreSum = 0;
+
+protected double m_trialScoreSquareSum = 0;
+
 private Specie m_specie = null;
 
 /**
@@ -202,6 +219,64 @@ public void setFitnessValue( int a_newFitnessValue ) {
 		m_fitnessValue = 1;
 }
 
+/**
+ * @return fitness from the last low fidelity screening evaluation, or -1 if the fitness
+ * function did not screen this Chromosome
+ */
+public int getScreeningFitnessValue() {
+	return m_screeningFitnessValue;
+}
+
+/**
+ * Records the fitness of a low fidelity screening evaluation. Like
+ * <code>setFitnessValue()</code>, this is for use by bulk fitness functions only; it does not
+ * affect selection.
+ * 
+ * @param aScreeningFitnessValue
+ */
+public void setScreeningFitnessValue( int aScreeningFitnessValue ) {
+	m_screeningFitnessValue = aScreeningFitnessValue;
+}
+
+/**
+ * Adds the score of a trial to those played so far. Like <code>setFitnessValue()</code>, this
+ * is for use by bulk fitness functions only.
+ * 
+ * @param score
+ */
+public synchronized void addTrialScore( int score ) {
+	++m_trialCount;
+	m_trialScoreSum += score;
+	m_trialScoreSquareSum += (double) score * score;
+}
+
+/**
+ * @return number of trials played over all generations, 0 if the fitness function does not
+ * accumulate trials
+ */
+public synchronized int getTrialCount() {
+	return m_trialCount;
+}
+
+/**
+ * @return mean score of the trials played over all generations, 0 if none was played
+ */
+public synchronized double getTrialScoreMean() {
+	return ( m_trialCount == 0 ) ? 0 : (double) m_trialScoreSum / m_trialCount;
+}
+
+/**
+ * @return sample variance of the scores of the trials played over all generations, 0 if fewer
+ * than two were played
+ */
+public synchronized double getTrialScoreVariance() {
+	if ( m_trialCount < 2 )
+		return 0;
+	double mean = (double) m_trialScoreSum / m_trialCount;
+	return Math.max( 0, ( m_trialScoreSquareSum - m_trialCount * mean * mean )
+			/ ( m_trialCount - 1 ) );
+}
+
 /**
  * Returns a string representation of this Chromosome, useful for some display purposes.
  * 
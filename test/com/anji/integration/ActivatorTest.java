@@ -0,0 +1,246 @@
+/*
+ * Copyright (C) 2004 Derek James and Philip Tucker
+ *
+ * This file is part of ANJI (Another NEAT Java Implementation).
+ *
+ * ANJI is free software; you can redistribute it and/or modify it under the terms of the GNU
+ * General Public License as published by the Free Software Foundation; either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See
+ * the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program; if
+ * not, write to the Free Software Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA
+ */
+package com.anji.integration;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+import org.jgap.Chromosome;
+import org.jgap.Genotype;
+
+import com.anji.neat.NeatConfiguration;
+import com.anji.util.Properties;
+
+/**
+ * Checks that flat, compiled and batched activators give exactly the responses of
+ * <code>AnjiActivator</code> on networks evolved with random fitness, recurrent connections
+ * included.
+ */
+public class ActivatorTest extends TestCase {
+
+private final static int STIMULUS_SIZE = 12;
+
+private final static int RESPONSE_SIZE = 4;
+
+private final static int GENERATIONS = 20;
+
+/**
+ * activations per network; more than <code>FlatNetCompiler.REPORT_INTERVAL</code>, so compiled
+ * networks get their class while they are compared
+ */
+private final static int ACTIVATIONS = 3000;
+
+private final static int LANES = 5;
+
+private Random rand;
+
+/**
+ * @see junit.framework.TestCase#setUp()
+ */
+protected void setUp() {
+	rand = new Random( 1 );
+}
+
+/**
+ * @param recurrent recurrency policy
+ * @param cycles recurrent cycles per activation
+ * @return properties evolving small networks quickly, with random fitness
+ */
+private static Properties newProperties( String recurrent, int cycles ) {
+	java.util.Properties values = new java.util.Properties();
+	values.setProperty( "random.seed", "0" );
+	values.setProperty( "stimulus.size", String.valueOf( STIMULUS_SIZE ) );
+	values.setProperty( "response.size", String.valueOf( RESPONSE_SIZE ) );
+	values.setProperty( "popul.size", "40" );
+	values.setProperty( "add.connection.mutation.rate", "0.02" );
+	values.setProperty( "add.neuron.mutation.rate", "0.03" );
+	values.setProperty( "remove.connection.mutation.rate", "0.0" );
+	values.setProperty( "prune.mutation.rate", "0.0" );
+	values.setProperty( "weight.mutation.rate", "0.8" );
+	values.setProperty( "weight.mutation.std.dev", "1.5" );
+	values.setProperty( "weight.max", "500.0" );
+	values.setProperty( "weight.min", "-500.0" );
+	values.setProperty( "initial.topology.fully.connected", "false" );
+	values.setProperty( "initial.topology.activation", "sigmoid" );
+	values.setProperty( "initial.topology.activation.input", "linear" );
+	values.setProperty( "recurrent", recurrent );
+	values.setProperty( "recurrent.cycles", String.valueOf( cycles ) );
+	values.setProperty( "ann.compiled.min.activations", "1" );
+	return new Properties( values );
+}
+
+/**
+ * @param props
+ * @return chromosomes of a population evolved with random fitness
+ * @throws Exception
+ */
+private static List evolve( Properties props ) throws Exception {
+	NeatConfiguration config = new NeatConfiguration( props );
+	RandomFitnessFunction fitness = new RandomFitnessFunction();
+	fitness.init( props );
+	config.setBulkFitnessFunction( fitness );
+	Genotype genotype = Genotype.randomInitialGenotype( config );
+	for ( int generation = 0; generation < GENERATIONS; ++generation )
+		genotype.evolve();
+	return genotype.getChromosomes();
+}
+
+/**
+ * @param props
+ * @param type <code>ActivatorTranscriber</code> network type
+ * @return transcriber of networks of <code>type</code>
+ */
+private static ActivatorTranscriber newTranscriber( Properties props, String type ) {
+	props.setProperty( ActivatorTranscriber.TYPE_KEY, type );
+	ActivatorTranscriber result = new ActivatorTranscriber();
+	result.init( props );
+	return result;
+}
+
+/**
+ * @return stimulus of 0s and 1s, as the pacman sensors give, with a bias input
+ */
+private double[] nextStimulus() {
+	double[] result = new double[ STIMULUS_SIZE ];
+	for ( int i = 0; i < STIMULUS_SIZE - 1; ++i )
+		result[ i ] = rand.nextInt( 3 ) == 0 ? 1 : 0;
+	result[ STIMULUS_SIZE - 1 ] = 1;
+	return result;
+}
+
+private static void assertSameResponse( String where, double[] expected, double[] actual ) {
+	assertEquals( where, expected.length, actual.length );
+	for ( int i = 0; i < expected.length; ++i )
+		assertEquals( where + " output " + i, Double.valueOf( expected[ i ] ), Double
+				.valueOf( actual[ i ] ) );
+}
+
+/**
+ * @param recurrent recurrency policy
+ * @param cycles recurrent cycles per activation
+ * @throws Exception
+ */
+private void checkActivators( String recurrent, int cycles ) throws Exception {
+	Properties props = newProperties( recurrent, cycles );
+	List chromosomes = evolve( props );
+	ActivatorTranscriber anji = newTranscriber( props, ActivatorTranscriber.ANJI_TYPE );
+	ActivatorTranscriber flat = newTranscriber( props, ActivatorTranscriber.FLAT_TYPE );
+	ActivatorTranscriber compiled = newTranscriber( props, ActivatorTranscriber.COMPILED_TYPE );
+
+	int recurrentCount = 0;
+	for ( int c = 0; c < chromosomes.size(); ++c ) {
+		Chromosome ch = (Chromosome) chromosomes.get( c );
+		Activator expected = anji.newActivator( ch );
+		Activator[] actual = { flat.newActivator( ch ), compiled.newActivator( ch ) };
+		if ( expected.isRecurrent() )
+			++recurrentCount;
+		for ( int i = 0; i < actual.length; ++i )
+			assertEquals( "chromosome " + ch.getId(), expected.isRecurrent(), actual[ i ].isRecurrent() );
+
+		for ( int step = 0; step < ACTIVATIONS; ++step ) {
+			// reset now and then, the first steps after a reset are computed differently
+			if ( step % 500 == 499 ) {
+				expected.reset();
+				for ( int i = 0; i < actual.length; ++i )
+					actual[ i ].reset();
+			}
+			double[] stimulus = nextStimulus();
+			double[] response = expected.next( stimulus );
+			for ( int i = 0; i < actual.length; ++i )
+				assertSameResponse( "chromosome " + ch.getId() + " activator " + i + " step " + step,
+						response, actual[ i ].next( stimulus, new double[ RESPONSE_SIZE ] ) );
+		}
+	}
+	assertTrue( "no recurrent networks evolved", recurrentCount > 0 );
+	assertTrue( compiled.toString(), compiled.toString().indexOf( "compiled 0 " ) < 0 );
+}
+
+/**
+ * @throws Exception
+ */
+public void testBestGuessRecurrency() throws Exception {
+	checkActivators( "best_guess", 1 );
+}
+
+/**
+ * @throws Exception
+ */
+public void testLazyRecurrency() throws Exception {
+	checkActivators( "lazy", 1 );
+}
+
+/**
+ * @throws Exception
+ */
+public void testSeveralCycles() throws Exception {
+	checkActivators( "best_guess", 3 );
+}
+
+/**
+ * Each lane of a batch, flat or serial, responds as its own activator does, also when lanes are
+ * reset or given no stimulus.
+ *
+ * @throws Exception
+ */
+public void testBatchLanes() throws Exception {
+	Properties props = newProperties( "best_guess", 1 );
+	List chromosomes = evolve( props );
+	ActivatorTranscriber anji = newTranscriber( props, ActivatorTranscriber.ANJI_TYPE );
+	ActivatorTranscriber flat = newTranscriber( props, ActivatorTranscriber.FLAT_TYPE );
+
+	for ( int c = 0; c < chromosomes.size(); ++c ) {
+		Chromosome ch = (Chromosome) chromosomes.get( c );
+		Activator[] expected = new Activator[ LANES ];
+		for ( int l = 0; l < LANES; ++l )
+			expected[ l ] = anji.newActivator( ch );
+		BatchActivator[] batches = { anji.newBatchActivator( ch, LANES ),
+				flat.newBatchActivator( ch, LANES ) };
+		assertEquals( expected[ 0 ].isRecurrent(), batches[ 1 ].isRecurrent() );
+
+		double[][] stimuli = new double[ LANES ][];
+		boolean[] fresh = new boolean[ LANES ];
+		Arrays.fill( fresh, true );
+		double[][][] responses = new double[ batches.length ][ LANES ][ RESPONSE_SIZE ];
+		for ( int step = 0; step < 200; ++step ) {
+			for ( int l = 0; l < LANES; ++l ) {
+				if ( rand.nextInt( 50 ) == 0 ) {
+					expected[ l ].reset();
+					for ( int b = 0; b < batches.length; ++b )
+						batches[ b ].reset( l );
+					fresh[ l ] = true;
+				}
+				// a lane given no stimulus reuses its previous one, if it had one since its reset
+				stimuli[ l ] = !fresh[ l ] && rand.nextInt( 10 ) == 0 ? null : nextStimulus();
+				fresh[ l ] = false;
+			}
+			for ( int b = 0; b < batches.length; ++b )
+				batches[ b ].next( stimuli, responses[ b ] );
+			for ( int l = 0; l < LANES; ++l ) {
+				double[] response = expected[ l ].next( stimuli[ l ] );
+				for ( int b = 0; b < batches.length; ++b )
+					assertSameResponse( "chromosome " + ch.getId() + " batch " + b + " lane " + l
+							+ " step " + step, response, responses[ b ][ l ] );
+			}
+		}
+	}
+}
+
+}
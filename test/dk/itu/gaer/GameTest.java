@@ -0,0 +1,369 @@
+package dk.itu.gaer;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import junit.framework.TestCase;
+
+
+/* Checks the table driven game against the rules it replaced, and its shortcuts (quiet frames,
+   replayed ghost paths and game batches) against plain frame by frame games */
+public class GameTest extends TestCase {
+
+    /* Barriers of the map as the original board drew them, x, y, width, height in pixels */
+    private static final int[][] BARRIERS = {
+        {120, 120, 60, 20}, {120, 80, 20, 100}, {280, 80, 20, 100}, {240, 120, 60, 20},
+        {280, 200, 20, 60}, {120, 200, 20, 60}, {160, 240, 100, 20}, {200, 260, 20, 40},
+        {120, 280, 60, 20}, {240, 280, 60, 20}, {40, 280, 60, 20}, {80, 280, 20, 60},
+        {320, 280, 60, 20}, {320, 280, 20, 60}, {20, 320, 40, 20}, {360, 320, 40, 20},
+        {160, 320, 100, 20}, {200, 320, 20, 60}, {40, 360, 140, 20}, {240, 360, 140, 20},
+        {280, 320, 20, 60}, {120, 320, 20, 60}, {320, 200, 80, 60}, {320, 80, 60, 20},
+        {200, 80, 20, 60}, {40, 40, 60, 20}, {120, 40, 60, 20}, {200, 20, 20, 40},
+        {240, 40, 60, 20}, {320, 40, 60, 20}, {40, 80, 60, 20}, {160, 80, 100, 20},
+        {20, 120, 80, 60}, {320, 120, 80, 60}, {20, 200, 80, 60}, {240, 180, 20, 20},
+        {160, 200, 100, 20}, {160, 180, 20, 20}, {220, 160, 40, 20}, {160, 160, 40, 20}
+    };
+
+    /* Seeds of the games played by the tests */
+    private static final int SEEDS = 20;
+
+    /* Frames each game is played for at most */
+    private static final int FRAMES = 3000;
+
+    /* The map and pellets as the original board built them, one boolean per cell */
+    private boolean[][] state = new boolean[20][20];
+    private boolean[][] pellets = new boolean[20][20];
+    private boolean[][] playerState = new boolean[20][20];
+
+    @Override
+    protected void setUp() {
+        for (int i = 0; i < 20; i++) {
+            Arrays.fill(state[i], true);
+            Arrays.fill(pellets[i], true);
+        }
+        for (int i = 5; i < 14; i++) {
+            for (int j = 5; j < 12; j++) {
+                pellets[i][j] = false;
+            }
+        }
+        pellets[9][7] = false;
+        pellets[8][8] = false;
+        pellets[9][8] = false;
+        pellets[10][8] = false;
+        for (int[] b : BARRIERS) {
+            for (int i = b[0] / 20; i < b[0] / 20 + b[2] / 20; i++) {
+                for (int j = b[1] / 20; j < b[1] / 20 + b[3] / 20; j++) {
+                    state[i - 1][j - 1] = false;
+                    pellets[i - 1][j - 1] = false;
+                }
+            }
+        }
+        for (int i = 0; i < 20; i++) {
+            playerState[i] = state[i].clone();
+        }
+        playerState[9][7] = false;
+    }
+
+    /* The original test of a destination against a map */
+    private static boolean isValidDest(boolean[][] map, int x, int y) {
+        return ((x % 20 == 0) || (y % 20 == 0)) && 20 <= x && x < 400 && 20 <= y && y < 400 && map[x / 20 - 1][y / 20 - 1];
+    }
+
+    /* The original look ahead of a mover: one step left or up, a whole cell right or down */
+    private static boolean canMove(boolean[][] map, int x, int y, char direction) {
+        switch (direction) {
+            case 'L':
+                return isValidDest(map, x - 4, y);
+            case 'R':
+                return isValidDest(map, x + 20, y);
+            case 'U':
+                return isValidDest(map, x, y - 4);
+            default:
+                return isValidDest(map, x, y + 20);
+        }
+    }
+
+    private static boolean isReverse(char a, char b) {
+        return Maze.reverse(Maze.direction(a)) == Maze.direction(b);
+    }
+
+    public void testBitboardsMatchOriginalMap() {
+        for (int i = 0; i < 20; i++) {
+            for (int j = 0; j < 20; j++) {
+                String cell = "cell " + i + "," + j;
+                assertEquals(cell, state[i][j], Maze.get(Maze.OPEN, i, j));
+                assertEquals(cell, playerState[i][j], Maze.get(Maze.PLAYER_OPEN, i, j));
+                assertEquals(cell, pellets[i][j], Maze.get(Maze.PELLETS, i, j));
+            }
+        }
+    }
+
+    /* Every position, heading and desired direction moves the player as the original rules did */
+    public void testPlayerMovesMatchOriginalRules() {
+        Player player = new Player(0, 0);
+        player.updateState(Maze.PLAYER_MOVES);
+        for (int x = 0; x <= 400; x += 4) {
+            for (int y = 0; y <= 400; y += 4) {
+                for (char current : Maze.DIRECTIONS) {
+                    for (char desired : Maze.DIRECTIONS) {
+                        /* The original move: turn at a grid center or to reverse, otherwise go on */
+                        int ex = x, ey = y;
+                        char direction = current;
+                        if ((x % 20 == 0 && y % 20 == 0) || isReverse(current, desired)) {
+                            if (canMove(playerState, x, y, desired)) {
+                                ex += Maze.STEP_X[Maze.direction(desired)];
+                                ey += Maze.STEP_Y[Maze.direction(desired)];
+                                direction = desired;
+                            }
+                        }
+                        if (ex == x && ey == y) {
+                            if (canMove(playerState, x, y, current)) {
+                                ex += Maze.STEP_X[Maze.direction(current)];
+                                ey += Maze.STEP_Y[Maze.direction(current)];
+                            } else if (current == 'L' && y == 180 && x < 40) {
+                                ex = 380;
+                            } else if (current == 'R' && y == 180 && x > 360) {
+                                ex = 20;
+                            }
+                        }
+
+                        player.x = x;
+                        player.y = y;
+                        player.currDirection = current;
+                        player.desiredDirection = desired;
+                        player.move();
+                        String where = x + "," + y + " heading " + current + " turning " + desired;
+                        assertEquals(where, ex, player.x);
+                        assertEquals(where, ey, player.y);
+                        assertEquals(where, direction, player.currDirection);
+                        assertEquals(where, ex == x && ey == y, player.stopped);
+                    }
+                }
+            }
+        }
+    }
+
+    /* A ghost picks among the exits the original rules could pick, and otherwise moves as they did */
+    public void testGhostMovesMatchOriginalRules() {
+        Ghost ghost = new Ghost(0, 0, new SplittableRandom(1));
+        ghost.updateState(Maze.GHOST_MOVES);
+        for (int x = 0; x <= 400; x += 4) {
+            for (int y = 0; y <= 400; y += 4) {
+                for (char current : Maze.DIRECTIONS) {
+                    String where = x + "," + y + " heading " + current;
+                    int moves = ghost.movesAt(x, y);
+                    ghost.direction = Maze.direction(current);
+                    if (x % 20 == 0 && y % 20 == 0) {
+                        /* The original chose at random among the exits other than reversing, and
+                         reversed only if there was none */
+                        StringBuilder expected = new StringBuilder();
+                        for (char exit : Maze.DIRECTIONS) {
+                            if (!isReverse(current, exit) && canMove(state, x, y, exit)) {
+                                expected.append(exit);
+                            }
+                        }
+                        if (expected.length() == 0) {
+                            expected.append(Maze.DIRECTIONS[Maze.reverse(Maze.direction(current))]);
+                        }
+                        StringBuilder actual = new StringBuilder();
+                        for (int exit : Maze.TURNS[(moves & 15) << 2 | Maze.direction(current)]) {
+                            actual.append(Maze.DIRECTIONS[exit]);
+                        }
+                        if (actual.length() == 0) {
+                            actual.append(Maze.DIRECTIONS[ghost.newDirection(moves)]);
+                        }
+                        assertEquals(where, expected.toString(), actual.toString());
+                        continue;
+                    }
+
+                    int ex = x, ey = y;
+                    if (canMove(state, x, y, current)) {
+                        ex += Maze.STEP_X[Maze.direction(current)];
+                        ey += Maze.STEP_Y[Maze.direction(current)];
+                    }
+                    ghost.x = x;
+                    ghost.y = y;
+                    ghost.move();
+                    assertEquals(where, ex, ghost.x);
+                    assertEquals(where, ey, ghost.y);
+                }
+            }
+        }
+    }
+
+    public void testWindowMatchesCells() {
+        SplittableRandom rand = new SplittableRandom(7);
+        for (int n = 0; n < 100; n++) {
+            long[] board = new long[Maze.WORDS];
+            for (int w = 0; w < Maze.WORDS; w++) {
+                board[w] = rand.nextLong();
+            }
+            for (int x = 0; x < Maze.SIZE; x++) {
+                for (int y = 0; y < Maze.SIZE; y++) {
+                    int expected = 0;
+                    int mask = 0;
+                    for (int dx = -1; dx <= 1; dx++) {
+                        for (int dy = -1; dy <= 1; dy++) {
+                            int bit = 1 << ((dx + 1) * 3 + dy + 1);
+                            int cx = x + dx, cy = y + dy;
+                            if (cx >= 0 && cx < Maze.SIZE && cy >= 0 && cy < Maze.SIZE) {
+                                mask |= bit;
+                                if (Maze.get(board, cx, cy)) {
+                                    expected |= bit;
+                                }
+                            }
+                        }
+                    }
+                    assertEquals("cell " + x + "," + y, expected, Maze.window(board, x, y));
+                    assertEquals("cell " + x + "," + y, mask, Maze.windowMask(x, y));
+                }
+            }
+        }
+    }
+
+    /* Skipping quiet frames plays the same game as stepping through them */
+    public void testAdvanceMatchesStep() {
+        for (long seed = 1; seed <= SEEDS; seed++) {
+            Game stepped = new Game(seed);
+            Game advanced = new Game(seed);
+            Script script = new Script(seed);
+            SplittableRandom limits = new SplittableRandom(-seed);
+            int frame = 0;
+            while (frame < FRAMES && !advanced.overScreen) {
+                char direction = script.next();
+                int frames = advanced.advance(direction, 1 + limits.nextInt(50));
+                assertTrue(frames >= 1);
+                for (int f = 0; f < frames; f++) {
+                    stepped.step(direction);
+                }
+                frame += frames;
+                assertSameGame("seed " + seed + " frame " + frame, stepped, advanced);
+            }
+        }
+    }
+
+    /* A game replaying a recorded trajectory plays as one moving its ghosts, through every life,
+     and one trajectory serves every game of its seed */
+    public void testTrajectoryMatchesSimulation() {
+        for (long seed = 1; seed <= SEEDS; seed++) {
+            GhostTrajectory trajectory = new GhostTrajectory(seed);
+            for (int script = 0; script < 3; script++) {
+                Game simulated = new Game(seed);
+                Game replayed = new Game(seed, trajectory);
+                Script directions = new Script(seed * 31 + script);
+                for (int frame = 0; frame < FRAMES && !simulated.overScreen; frame++) {
+                    char direction = directions.next();
+                    simulated.step(direction);
+                    replayed.step(direction);
+                    assertSameGame("seed " + seed + " script " + script + " frame " + frame, simulated, replayed);
+                }
+            }
+        }
+    }
+
+    public void testTrajectoryOfOtherSeedIsRejected() {
+        try {
+            new Game(1, new GhostTrajectory(2));
+            fail("trajectory of another seed accepted");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    /* Each lane of a batch plays its first life as a game of its seed does */
+    public void testBatchMatchesGames() {
+        long[] seeds = new long[SEEDS];
+        Game[] games = new Game[SEEDS];
+        Script[] scripts = new Script[SEEDS];
+        for (int l = 0; l < SEEDS; l++) {
+            seeds[l] = 1000 + l;
+            games[l] = new Game(seeds[l]);
+            scripts[l] = new Script(seeds[l]);
+        }
+        GameBatch batch = new GameBatch(seeds);
+        char[] directions = new char[SEEDS];
+        for (int frame = 0; frame < FRAMES && batch.getActiveCount() > 0; frame++) {
+            for (int l = 0; l < SEEDS; l++) {
+                directions[l] = scripts[l].next();
+            }
+            batch.step(directions);
+            for (int l = 0; l < SEEDS; l++) {
+                if (!batch.isActive(l)) {
+                    continue;
+                }
+                Game game = games[l];
+                game.step(directions[l]);
+                String where = "lane " + l + " frame " + frame;
+                boolean over = game.died || game.winScreen;
+                assertEquals(where, over, batch.isOver(l));
+                assertEquals(where, game.currScore, batch.getScore(l));
+                assertEquals(where, game.isNewCell(), batch.isNewCell(l));
+                assertEquals(where, game.getVisitedCount(), batch.getVisitedCount(l));
+                assertTrue(where, Arrays.equals(game.pellets, batch.getPellets(l)));
+                assertEquals(where, game.player.pelletX, batch.getPlayerCellX(l));
+                assertEquals(where, game.player.pelletY, batch.getPlayerCellY(l));
+                assertEquals(where, ghostWindow(game), batch.getGhostWindow(l));
+                if (over) {
+                    batch.stop(l);
+                }
+            }
+        }
+        assertEquals(0, batch.getActiveCount());
+    }
+
+    /* The 3x3 neighbourhood of the player with the cells holding a ghost set, as the batch lays it out */
+    private static int ghostWindow(Game game) {
+        int result = 0;
+        for (Ghost ghost : game.ghosts) {
+            int dx = ghost.pelletX - game.player.pelletX;
+            int dy = ghost.pelletY - game.player.pelletY;
+            if (dx >= -1 && dx <= 1 && dy >= -1 && dy <= 1) {
+                result |= 1 << ((dx + 1) * 3 + dy + 1);
+            }
+        }
+        return result;
+    }
+
+    private static void assertSameGame(String where, Game expected, Game actual) {
+        assertEquals(where, expected.player.x, actual.player.x);
+        assertEquals(where, expected.player.y, actual.player.y);
+        assertEquals(where, expected.player.currDirection, actual.player.currDirection);
+        assertEquals(where, expected.player.pelletX, actual.player.pelletX);
+        assertEquals(where, expected.player.pelletY, actual.player.pelletY);
+        for (int i = 0; i < expected.ghosts.length; i++) {
+            assertEquals(where + " ghost " + i, expected.ghosts[i].x, actual.ghosts[i].x);
+            assertEquals(where + " ghost " + i, expected.ghosts[i].y, actual.ghosts[i].y);
+            assertEquals(where + " ghost " + i, expected.ghosts[i].direction, actual.ghosts[i].direction);
+            assertEquals(where + " ghost " + i, expected.ghosts[i].pelletX, actual.ghosts[i].pelletX);
+            assertEquals(where + " ghost " + i, expected.ghosts[i].pelletY, actual.ghosts[i].pelletY);
+        }
+        assertEquals(where, expected.currScore, actual.currScore);
+        assertTrue(where, Arrays.equals(expected.pellets, actual.pellets));
+        assertEquals(where, expected.getLives(), actual.getLives());
+        assertEquals(where, expected.isDying(), actual.isDying());
+        assertEquals(where, expected.isStarting(), actual.isStarting());
+        assertEquals(where, expected.stopped, actual.stopped);
+        assertEquals(where, expected.winScreen, actual.winScreen);
+        assertEquals(where, expected.overScreen, actual.overScreen);
+        assertEquals(where, expected.titleScreen, actual.titleScreen);
+        assertEquals(where, expected.isNewCell(), actual.isNewCell());
+        assertEquals(where, expected.getVisitedCount(), actual.getVisitedCount());
+    }
+
+    /* Directions a player tries, mostly keeping its last one so that it gets around the maze */
+    private static class Script {
+
+        private final SplittableRandom rand;
+        private char direction = 'L';
+
+        Script(long seed) {
+            rand = new SplittableRandom(seed);
+        }
+
+        char next() {
+            if (rand.nextInt(10) == 0) {
+                direction = Maze.DIRECTIONS[rand.nextInt(4)];
+            }
+            return direction;
+        }
+    }
+}